@@ -0,0 +1,106 @@
+package com.dwelzy.dwelzy.benchmark;
+
+import com.dwelzy.dwelzy.dto.BookingRequest;
+import com.dwelzy.dwelzy.entity.Booking;
+import com.dwelzy.dwelzy.entity.Driver;
+import com.dwelzy.dwelzy.entity.Hub;
+import com.dwelzy.dwelzy.entity.User;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeded generators for benchmark inputs shaped like production data: one metro region with
+ * hubs spread over it, drivers attached to hubs and bookings with a mix of optional fields.
+ */
+public final class BenchmarkData {
+
+    private static final double MIN_LATITUDE = 12.70;
+    private static final double MIN_LONGITUDE = 77.35;
+    private static final double REGION_DEGREES = 0.6;
+
+    private static final String[] ITEM_TYPES = {
+        "documents", "electronics", "fragile", "food", "medical", "hazardous", "furniture", null
+    };
+
+    private BenchmarkData() {}
+
+    public static List<Hub> hubs(Random random, int count) {
+        List<Hub> hubs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Hub hub = new Hub("Hub " + i, "Address " + i);
+            hub.setId((long) i + 1);
+            hub.setLatitude(coordinate(MIN_LATITUDE, random));
+            hub.setLongitude(coordinate(MIN_LONGITUDE, random));
+            hubs.add(hub);
+        }
+        return hubs;
+    }
+
+    public static List<Driver> drivers(Random random, int count, List<Hub> hubs) {
+        List<Driver> drivers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Driver driver = new Driver(new User("driver" + i, "driver" + i + "@dwelzy.com", "password"), "LIC" + i);
+            driver.setId((long) i + 1);
+            driver.setIsVerified(true);
+            // A few new drivers have no rating yet and a few are not attached to any hub
+            driver.setRating(random.nextInt(10) == 0 ? null : 3.0 + random.nextDouble() * 2);
+            driver.setTotalDeliveries(random.nextInt(250));
+            driver.setHub(random.nextInt(20) == 0 ? null : hubs.get(random.nextInt(hubs.size())));
+            drivers.add(driver);
+        }
+        return drivers;
+    }
+
+    public static List<Booking> bookings(Random random, int count, List<Hub> hubs) {
+        User customer = new User("customer", "customer@dwelzy.com", "password");
+        List<Booking> bookings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Booking booking = new Booking("DWZ" + i, customer, "Pickup " + i, "Delivery " + i, BigDecimal.TEN);
+            booking.setId((long) i + 1);
+            booking.setPickupLatitude(coordinate(MIN_LATITUDE, random));
+            booking.setPickupLongitude(coordinate(MIN_LONGITUDE, random));
+            booking.setDeliveryLatitude(coordinate(MIN_LATITUDE, random));
+            booking.setDeliveryLongitude(coordinate(MIN_LONGITUDE, random));
+            booking.setPickupHub(hubs.get(random.nextInt(hubs.size())));
+            booking.setDeliveryHub(hubs.get(random.nextInt(hubs.size())));
+            bookings.add(booking);
+        }
+        return bookings;
+    }
+
+    public static List<BookingRequest> bookingRequests(Random random, int count) {
+        List<BookingRequest> requests = new ArrayList<>(count);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < count; i++) {
+            BookingRequest request = new BookingRequest();
+            request.setPickupAddress("Pickup " + i);
+            request.setDeliveryAddress("Delivery " + i);
+            // Most requests come from the app with coordinates, some are typed-in addresses only
+            if (random.nextInt(10) != 0) {
+                request.setPickupLatitude(coordinate(MIN_LATITUDE, random));
+                request.setPickupLongitude(coordinate(MIN_LONGITUDE, random));
+                request.setDeliveryLatitude(coordinate(MIN_LATITUDE, random));
+                request.setDeliveryLongitude(coordinate(MIN_LONGITUDE, random));
+            }
+            request.setWeight(0.2 + random.nextDouble() * 30);
+            if (random.nextBoolean()) {
+                request.setLength(10 + random.nextDouble() * 90);
+                request.setWidth(10 + random.nextDouble() * 90);
+                request.setHeight(5 + random.nextDouble() * 60);
+            }
+            request.setItemType(ITEM_TYPES[random.nextInt(ITEM_TYPES.length)]);
+            request.setScheduledPickupTime(now.plusMinutes(random.nextInt(48 * 60)));
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    private static BigDecimal coordinate(double min, Random random) {
+        return BigDecimal.valueOf(min + random.nextDouble() * REGION_DEGREES).setScale(8, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,116 @@
+package com.dwelzy.dwelzy.benchmark;
+
+import com.dwelzy.dwelzy.util.GeoMath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distance from one pickup point to a set of hubs: the BigDecimal haversine that used to be copied
+ * across services, against the GeoMath variants.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoMathBenchmark {
+
+    @Param({"100", "10000"})
+    private int points;
+
+    private BigDecimal originLatitude;
+    private BigDecimal originLongitude;
+    private BigDecimal[] latitudes;
+    private BigDecimal[] longitudes;
+
+    private double originLat;
+    private double originLon;
+    private double[] lats;
+    private double[] lons;
+    private double[] cosLats;
+    private double[] distances;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Points scattered around a metro area, like pickups and hubs of one region
+        Random random = new Random(42);
+        originLatitude = new BigDecimal("12.97160000");
+        originLongitude = new BigDecimal("77.59460000");
+        latitudes = new BigDecimal[points];
+        longitudes = new BigDecimal[points];
+        lats = new double[points];
+        lons = new double[points];
+        cosLats = new double[points];
+        distances = new double[points];
+        for (int i = 0; i < points; i++) {
+            latitudes[i] = BigDecimal.valueOf(12.5 + random.nextDouble()).setScale(8, RoundingMode.HALF_UP);
+            longitudes[i] = BigDecimal.valueOf(77.0 + random.nextDouble()).setScale(8, RoundingMode.HALF_UP);
+            lats[i] = Math.toRadians(latitudes[i].doubleValue());
+            lons[i] = Math.toRadians(longitudes[i].doubleValue());
+            cosLats[i] = Math.cos(lats[i]);
+        }
+        originLat = Math.toRadians(originLatitude.doubleValue());
+        originLon = Math.toRadians(originLongitude.doubleValue());
+    }
+
+    @Benchmark
+    public void legacyBigDecimal(Blackhole blackhole) {
+        for (int i = 0; i < points; i++) {
+            blackhole.consume(legacyDistance(originLatitude, originLongitude, latitudes[i], longitudes[i]));
+        }
+    }
+
+    @Benchmark
+    public void haversineDegrees(Blackhole blackhole) {
+        double latitude = originLatitude.doubleValue();
+        double longitude = originLongitude.doubleValue();
+        for (int i = 0; i < points; i++) {
+            blackhole.consume(GeoMath.distanceKm(latitude, longitude,
+                    latitudes[i].doubleValue(), longitudes[i].doubleValue()));
+        }
+    }
+
+    @Benchmark
+    public double[] haversineBatch() {
+        GeoMath.haversineKm(originLat, originLon, lats, lons, cosLats, distances);
+        return distances;
+    }
+
+    @Benchmark
+    public double[] equirectangularBatch() {
+        GeoMath.equirectangularKm(originLat, originLon, lats, lons, distances);
+        return distances;
+    }
+
+    // Verbatim copy of the per-service calculateDistance this utility replaced
+    private static BigDecimal legacyDistance(BigDecimal lat1, BigDecimal lon1, BigDecimal lat2, BigDecimal lon2) {
+        double earthRadius = 6371;
+
+        double dLat = Math.toRadians(lat2.doubleValue() - lat1.doubleValue());
+        double dLon = Math.toRadians(lon2.doubleValue() - lon1.doubleValue());
+
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                   Math.cos(Math.toRadians(lat1.doubleValue())) * Math.cos(Math.toRadians(lat2.doubleValue())) *
+                   Math.sin(dLon / 2) * Math.sin(dLon / 2);
+
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        return BigDecimal.valueOf(earthRadius * c);
+    }
+}
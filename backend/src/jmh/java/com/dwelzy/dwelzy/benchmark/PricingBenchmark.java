@@ -0,0 +1,108 @@
+package com.dwelzy.dwelzy.benchmark;
+
+import com.dwelzy.dwelzy.dto.BookingRequest;
+import com.dwelzy.dwelzy.entity.Hub;
+import com.dwelzy.dwelzy.service.HubLocatorService;
+import com.dwelzy.dwelzy.service.PricingService;
+import com.dwelzy.dwelzy.service.RouteContextService;
+import com.dwelzy.dwelzy.service.SurgePricingService;
+import com.dwelzy.dwelzy.service.ZoneService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prices a backlog of generated booking requests, one backlog per operation
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    private static final BigDecimal DEFAULT_DISTANCE = BigDecimal.valueOf(10.0);
+
+    @Param({"100", "10000"})
+    private int backlog;
+
+    private PricingService pricingService;
+    private List<BookingRequest> requests;
+    private BookingRequest[] estimates;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+
+        // Hubs with mixed demand, so some pickups surge
+        HubLocatorService hubLocatorService = new HubLocatorService();
+        ReflectionTestUtils.setField(hubLocatorService, "cellDegrees", 0.1);
+        ReflectionTestUtils.invokeMethod(hubLocatorService, "init");
+        ReflectionTestUtils.setField(hubLocatorService, "ready", true);
+        SurgePricingService surgePricingService = new SurgePricingService();
+        for (Hub hub : BenchmarkData.hubs(random, 20)) {
+            hubLocatorService.onHubChanged(hub.getId(),
+                    new double[]{hub.getLatitude().doubleValue(), hub.getLongitude().doubleValue()}, true);
+            for (int i = random.nextInt(20); i > 0; i--) {
+                surgePricingService.onBookingChanged(null, false, hub.getId(), true);
+            }
+            for (int i = random.nextInt(10); i > 0; i--) {
+                surgePricingService.onDriverChanged(null, false, hub.getId(), true);
+            }
+        }
+        surgePricingService.tick();
+        RouteContextService routeContextService = new RouteContextService();
+        ReflectionTestUtils.setField(routeContextService, "hubLocatorService", hubLocatorService);
+        ZoneService zoneService = new ZoneService();
+        ReflectionTestUtils.setField(zoneService, "zonesLocation", "classpath:zones.geojson");
+        ReflectionTestUtils.setField(zoneService, "cellDegrees", 0.01);
+        ReflectionTestUtils.invokeMethod(zoneService, "init");
+        ReflectionTestUtils.setField(routeContextService, "zoneService", zoneService);
+
+        pricingService = new PricingService();
+        ReflectionTestUtils.setField(pricingService, "routeContextService", routeContextService);
+        ReflectionTestUtils.setField(pricingService, "surgePricingService", surgePricingService);
+        ReflectionTestUtils.setField(pricingService, "ratesLocation", "classpath:pricing-rates.json");
+        ReflectionTestUtils.invokeMethod(pricingService, "init");
+        requests = BenchmarkData.bookingRequests(random, backlog);
+
+        // Estimates repeat: item analysis quotes a small catalog of box sizes at the default 10 km
+        List<BookingRequest> catalog = BenchmarkData.bookingRequests(random, 50);
+        estimates = new BookingRequest[backlog];
+        for (int i = 0; i < backlog; i++) {
+            estimates[i] = catalog.get(random.nextInt(catalog.size()));
+        }
+    }
+
+    @Benchmark
+    public void calculatePrice(Blackhole blackhole) {
+        for (BookingRequest request : requests) {
+            blackhole.consume(pricingService.calculatePrice(request));
+        }
+    }
+
+    @Benchmark
+    public void getEstimatedPrice(Blackhole blackhole) {
+        for (BookingRequest request : estimates) {
+            blackhole.consume(pricingService.getEstimatedPrice(request.getWeight(), request.getLength(),
+                    request.getWidth(), request.getHeight(), request.getItemType(), DEFAULT_DISTANCE));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.dwelzy.dwelzy.benchmark;
+
+import com.dwelzy.dwelzy.util.ZoneIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Zone lookup for a batch of pickup points: the grid index against testing every polygon
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ZoneLookupBenchmark {
+
+    private static final int POINTS = 1000;
+
+    @Param({"10", "500"})
+    private int zoneCount;
+
+    // Vertices per zone polygon
+    @Param({"16", "256"})
+    private int vertices;
+
+    private List<ZoneIndex.Zone> zones;
+    private ZoneIndex index;
+    private double[] latitudes;
+    private double[] longitudes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Irregular polygons of 1-5 km radius scattered around a metro area
+        Random random = new Random(42);
+        zones = new ArrayList<>(zoneCount);
+        for (int z = 0; z < zoneCount; z++) {
+            double centerLat = 12.70 + random.nextDouble() * 0.6;
+            double centerLon = 77.35 + random.nextDouble() * 0.6;
+            double radius = 0.01 + random.nextDouble() * 0.04;
+            double[] ring = new double[vertices * 2];
+            for (int v = 0; v < vertices; v++) {
+                double angle = 2 * Math.PI * v / vertices;
+                double r = radius * (0.6 + random.nextDouble() * 0.4);
+                ring[2 * v] = centerLon + r * Math.cos(angle);
+                ring[2 * v + 1] = centerLat + r * Math.sin(angle);
+            }
+            zones.add(new ZoneIndex.Zone("zone-" + z, random.nextInt(3), true, List.of(ring)));
+        }
+        index = new ZoneIndex(zones, 0.01);
+
+        latitudes = new double[POINTS];
+        longitudes = new double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            latitudes[i] = 12.70 + random.nextDouble() * 0.6;
+            longitudes[i] = 77.35 + random.nextDouble() * 0.6;
+        }
+    }
+
+    @Benchmark
+    public void index(Blackhole blackhole) {
+        for (int i = 0; i < POINTS; i++) {
+            blackhole.consume(index.find(latitudes[i], longitudes[i]));
+        }
+    }
+
+    @Benchmark
+    public void scanAll(Blackhole blackhole) {
+        for (int i = 0; i < POINTS; i++) {
+            ZoneIndex.Zone found = null;
+            for (ZoneIndex.Zone zone : zones) {
+                if ((found == null || zone.priority() > found.priority()) && zone.contains(latitudes[i], longitudes[i])) {
+                    found = zone;
+                }
+            }
+            blackhole.consume(found);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.dwelzy.dwelzy.service;
+
+import com.dwelzy.dwelzy.benchmark.BenchmarkData;
+import com.dwelzy.dwelzy.entity.Booking;
+import com.dwelzy.dwelzy.entity.Driver;
+import com.dwelzy.dwelzy.entity.Hub;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scores every driver of a fleet against a backlog of bookings, the work behind one assignment batch.
+ * Lives in the service package to reach the package-private scoring code without a Spring context.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DriverScoringBenchmark {
+
+    @Param({"50", "500", "5000"})
+    private int fleet;
+
+    @Param({"10", "100"})
+    private int backlog;
+
+    private DriverAssignmentService driverAssignmentService;
+    private List<Driver> drivers;
+    private List<Booking> bookings;
+    private DriverSnapshot snapshot;
+    private DriverSnapshot.Target[] targets;
+    private double[] scores;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        List<Hub> hubs = BenchmarkData.hubs(random, Math.max(5, fleet / 20));
+        drivers = BenchmarkData.drivers(random, fleet, hubs);
+        bookings = BenchmarkData.bookings(random, backlog, hubs);
+
+        driverAssignmentService = new DriverAssignmentService();
+
+        List<Object[]> rows = new ArrayList<>(fleet);
+        for (Driver driver : drivers) {
+            Hub hub = driver.getHub();
+            rows.add(new Object[]{driver.getId(), driver.getRating(), driver.getTotalDeliveries(),
+                    driver.getStatus(), driver.getIsVerified(), hub != null ? hub.getId() : null,
+                    hub != null ? hub.getLatitude() : null, hub != null ? hub.getLongitude() : null});
+        }
+        snapshot = DriverSnapshotService.build(rows);
+        targets = new DriverSnapshot.Target[backlog];
+        for (int i = 0; i < backlog; i++) {
+            targets[i] = DriverSnapshot.Target.of(bookings.get(i));
+        }
+        scores = new double[fleet];
+    }
+
+    @Benchmark
+    public void entityScoring(Blackhole blackhole) {
+        for (Booking booking : bookings) {
+            for (Driver driver : drivers) {
+                blackhole.consume(driverAssignmentService.calculateDriverScore(driver, booking));
+            }
+        }
+    }
+
+    @Benchmark
+    public void snapshotScoring(Blackhole blackhole) {
+        for (DriverSnapshot.Target target : targets) {
+            snapshot.scoreAll(target, scores);
+            blackhole.consume(scores);
+        }
+    }
+}
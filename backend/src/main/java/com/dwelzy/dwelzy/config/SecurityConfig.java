@@ -3,6 +3,7 @@ package com.dwelzy.dwelzy.config;
 import com.dwelzy.dwelzy.security.AuthEntryPointJwt;
 import com.dwelzy.dwelzy.security.AuthTokenFilter;
 import com.dwelzy.dwelzy.security.CustomUserDetailsService;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -63,6 +64,8 @@ public class SecurityConfig {
                 .requestMatchers("/h2-console/**").permitAll()
                 .requestMatchers("/api/v1/test/**").permitAll()
                 .requestMatchers("/error").permitAll()
+                // Completion of streamed responses, the original request was already authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .anyRequest().authenticated()
             )
             .headers(headers -> headers.frameOptions().disable()); // For H2 console
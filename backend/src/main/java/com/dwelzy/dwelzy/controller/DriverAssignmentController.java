@@ -3,6 +3,7 @@ package com.dwelzy.dwelzy.controller;
 import com.dwelzy.dwelzy.dto.BookingResponse;
 import com.dwelzy.dwelzy.dto.MessageResponse;
 import com.dwelzy.dwelzy.entity.Booking;
+import com.dwelzy.dwelzy.service.AssignmentSweepService;
 import com.dwelzy.dwelzy.service.DriverAssignmentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -17,6 +18,9 @@ public class DriverAssignmentController {
     @Autowired
     private DriverAssignmentService driverAssignmentService;
 
+    @Autowired
+    private AssignmentSweepService assignmentSweepService;
+
     @PostMapping("/assign/{bookingId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('HUB_MANAGER')")
     public ResponseEntity<?> assignDriverToBooking(@PathVariable Long bookingId) {
@@ -59,7 +63,7 @@ public class DriverAssignmentController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> triggerAutoAssignment() {
         try {
-            driverAssignmentService.autoAssignDrivers();
+            assignmentSweepService.autoAssignDrivers();
             return ResponseEntity.ok(new MessageResponse("Auto-assignment triggered successfully"));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -1,17 +1,33 @@
 package com.dwelzy.dwelzy.controller;
 
+import com.dwelzy.dwelzy.dto.ItemAnalysisJob;
 import com.dwelzy.dwelzy.dto.ItemAnalysisRequest;
 import com.dwelzy.dwelzy.dto.ItemAnalysisResponse;
 import com.dwelzy.dwelzy.dto.MessageResponse;
+import com.dwelzy.dwelzy.service.ImageIngestService;
+import com.dwelzy.dwelzy.service.ItemAnalysisCacheService;
+import com.dwelzy.dwelzy.service.ItemAnalysisJobService;
 import com.dwelzy.dwelzy.service.ItemAnalysisService;
+import com.dwelzy.dwelzy.service.ItemAnalyzerDispatchService;
+import com.dwelzy.dwelzy.service.ItemBatchAnalysisService;
+import com.dwelzy.dwelzy.service.ItemImage;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.Base64;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -21,80 +37,180 @@ public class ItemController {
     @Autowired
     private ItemAnalysisService itemAnalysisService;
 
+    @Autowired
+    private ImageIngestService imageIngestService;
+
+    @Autowired
+    private ItemAnalysisJobService itemAnalysisJobService;
+
+    @Autowired
+    private ItemAnalysisCacheService itemAnalysisCacheService;
+
+    @Autowired
+    private ItemAnalyzerDispatchService itemAnalyzerDispatchService;
+
+    @Autowired
+    private ItemBatchAnalysisService itemBatchAnalysisService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Longest a poll for an analysis job may wait for it to finish
+    private static final long MAX_POLL_WAIT_MS = 30000;
+
+    /**
+     * Analyze an item image; with async=true the analysis is queued and a job is returned to poll.
+     * Otherwise the response is completed when the analyzer's batch finishes, off the request thread.
+     */
     @PostMapping("/analyze")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<?> analyzeItem(@Valid @RequestBody ItemAnalysisRequest request) {
+    public CompletableFuture<ResponseEntity<?>> analyzeItem(@Valid @RequestBody ItemAnalysisRequest request,
+                                         @RequestParam(value = "async", defaultValue = "false") boolean async) {
         try {
             // Validate base64 image
             if (request.getImageBase64() == null || request.getImageBase64().trim().isEmpty()) {
-                return ResponseEntity.badRequest()
-                        .body(new MessageResponse("Image data is required"));
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                        .body(new MessageResponse("Image data is required")));
             }
 
-            // Validate base64 format
+            // Decode straight to a temporary file, which also validates the base64 format
+            ItemImage image;
             try {
-                Base64.getDecoder().decode(request.getImageBase64());
+                image = imageIngestService.ingestBase64(request.getImageBase64(), null);
             } catch (IllegalArgumentException e) {
-                return ResponseEntity.badRequest()
-                        .body(new MessageResponse("Invalid base64 image format"));
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                        .body(new MessageResponse("Invalid base64 image format")));
             }
 
-            ItemAnalysisResponse response = itemAnalysisService.analyzeItem(request);
-            return ResponseEntity.ok(response);
+            return analyze(image, request, async);
             
         } catch (Exception e) {
-            return ResponseEntity.badRequest()
-                    .body(new MessageResponse("Error analyzing item: " + e.getMessage()));
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error analyzing item: " + e.getMessage())));
         }
     }
 
     @PostMapping("/analyze-upload")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<?> analyzeItemUpload(@RequestParam("image") MultipartFile file,
+    public CompletableFuture<ResponseEntity<?>> analyzeItemUpload(@RequestParam("image") MultipartFile file,
                                              @RequestParam(value = "description", required = false) String description,
                                              @RequestParam(value = "estimatedWeight", required = false) Double estimatedWeight,
                                              @RequestParam(value = "estimatedLength", required = false) Double estimatedLength,
                                              @RequestParam(value = "estimatedWidth", required = false) Double estimatedWidth,
-                                             @RequestParam(value = "estimatedHeight", required = false) Double estimatedHeight) {
+                                             @RequestParam(value = "estimatedHeight", required = false) Double estimatedHeight,
+                                             @RequestParam(value = "async", defaultValue = "false") boolean async) {
         try {
             // Validate file
             if (file.isEmpty()) {
-                return ResponseEntity.badRequest()
-                        .body(new MessageResponse("Image file is required"));
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                        .body(new MessageResponse("Image file is required")));
             }
 
             // Check file type
             String contentType = file.getContentType();
             if (contentType == null || !contentType.startsWith("image/")) {
-                return ResponseEntity.badRequest()
-                        .body(new MessageResponse("File must be an image"));
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                        .body(new MessageResponse("File must be an image")));
             }
 
             // Check file size (max 10MB)
-            if (file.getSize() > 10 * 1024 * 1024) {
-                return ResponseEntity.badRequest()
-                        .body(new MessageResponse("File size must be less than 10MB"));
+            if (file.getSize() > imageIngestService.getMaxBytes()) {
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                        .body(new MessageResponse("File size must be less than 10MB")));
             }
 
-            // Convert to base64
-            byte[] imageBytes = file.getBytes();
-            String base64Image = Base64.getEncoder().encodeToString(imageBytes);
-
-            // Create request object
+            // Create request object; the image itself is streamed, not copied into it
             ItemAnalysisRequest request = new ItemAnalysisRequest();
-            request.setImageBase64(base64Image);
             request.setItemDescription(description);
             request.setEstimatedWeight(estimatedWeight);
             request.setEstimatedLength(estimatedLength);
             request.setEstimatedWidth(estimatedWidth);
             request.setEstimatedHeight(estimatedHeight);
 
-            ItemAnalysisResponse response = itemAnalysisService.analyzeItem(request);
-            return ResponseEntity.ok(response);
+            ItemImage image;
+            try (InputStream input = file.getInputStream()) {
+                image = imageIngestService.ingest(input, contentType);
+            }
+            return analyze(image, request, async);
             
         } catch (Exception e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error analyzing item: " + e.getMessage())));
+        }
+    }
+
+    /**
+     * Analyze several item images in parallel, streaming one result per line (NDJSON) as each
+     * finishes, followed by a summary with the itemized and combined price
+     */
+    @PostMapping("/analyze-batch")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> analyzeBatch(@RequestParam("images") List<MultipartFile> files) {
+        try {
+            ItemBatchAnalysisService.Batch batch = itemBatchAnalysisService.prepareBatch(files);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(output -> itemBatchAnalysisService.analyzeBatch(batch, output));
+        } catch (Exception e) {
+            // Streaming bodies bypass the message converters, so the error is serialized here
+            MessageResponse error = new MessageResponse("Error analyzing items: " + e.getMessage());
             return ResponseEntity.badRequest()
-                    .body(new MessageResponse("Error analyzing item: " + e.getMessage()));
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(output -> objectMapper.writeValue(output, error));
+        }
+    }
+
+    /**
+     * Current state of a queued analysis. With waitMs the request is held until the job finishes
+     * or the wait runs out, without tying up a request thread.
+     */
+    @GetMapping("/analyze/jobs/{id}")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public DeferredResult<ResponseEntity<?>> getAnalysisJob(@PathVariable String id,
+                                                            @RequestParam(value = "waitMs", defaultValue = "0") long waitMs) {
+        long timeout = Math.max(1, Math.min(waitMs, MAX_POLL_WAIT_MS));
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(timeout,
+                () -> jobResponse(id, itemAnalysisJobService.getJob(id).orElse(null)));
+        ItemAnalysisJob job = itemAnalysisJobService.getJob(id).orElse(null);
+        if (job == null || job.isFinished() || waitMs <= 0) {
+            result.setResult(jobResponse(id, job));
+        } else {
+            itemAnalysisJobService.whenFinished(id)
+                    .ifPresent(done -> done.thenAccept(finished -> result.setResult(jobResponse(id, finished))));
+        }
+        return result;
+    }
+
+    @GetMapping("/analysis-queue")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getAnalysisQueueStats() {
+        try {
+            return ResponseEntity.ok(itemAnalysisJobService.getQueueStats());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error retrieving analysis queue stats: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/analysis-cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getAnalysisCacheStats() {
+        try {
+            return ResponseEntity.ok(itemAnalysisCacheService.getStats());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error retrieving analysis cache stats: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/analyzer")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getAnalyzerStats() {
+        try {
+            return ResponseEntity.ok(itemAnalyzerDispatchService.getStats());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error retrieving analyzer stats: " + e.getMessage()));
         }
     }
 
@@ -148,4 +264,44 @@ public class ItemController {
                     .body(new MessageResponse("Error retrieving handling instructions: " + e.getMessage()));
         }
     }
+
+    // Runs or queues the analysis; either way the image is closed once it is no longer needed
+    private CompletableFuture<ResponseEntity<?>> analyze(ItemImage image, ItemAnalysisRequest request, boolean async)
+            throws Exception {
+        if (!async) {
+            CompletableFuture<ItemAnalysisResponse> analysis;
+            try {
+                analysis = itemAnalysisService.analyzeItemAsync(image, request);
+            } catch (Exception e) {
+                image.close();
+                throw e;
+            }
+            return analysis.handle((response, error) -> {
+                image.close();
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    return ResponseEntity.badRequest()
+                            .body(new MessageResponse("Error analyzing item: " + cause.getMessage()));
+                }
+                return ResponseEntity.ok(response);
+            });
+        }
+        try {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.accepted().body(itemAnalysisJobService.submit(image, request)));
+        } catch (ItemAnalysisJobService.QueueFullException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(new MessageResponse("Error analyzing item: " + e.getMessage())));
+        }
+    }
+
+    private ResponseEntity<?> jobResponse(String id, ItemAnalysisJob job) {
+        if (job == null) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error retrieving analysis job: Job not found with id: " + id));
+        }
+        return ResponseEntity.ok(job);
+    }
 }
@@ -0,0 +1,82 @@
+package com.dwelzy.dwelzy.controller;
+
+import com.dwelzy.dwelzy.dto.MessageResponse;
+import com.dwelzy.dwelzy.dto.RateTableDefinition;
+import com.dwelzy.dwelzy.dto.RepricingReport;
+import com.dwelzy.dwelzy.service.PricingService;
+import com.dwelzy.dwelzy.service.QuoteBatchService;
+import com.dwelzy.dwelzy.service.RepricingService;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/v1/pricing")
+public class PricingController {
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private QuoteBatchService quoteBatchService;
+
+    @Autowired
+    private RepricingService repricingService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Price a JSON array of quote requests, streaming one quote per line (NDJSON) in request order
+     */
+    @PostMapping(value = "/quotes:batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> quoteBatch(HttpServletRequest request) {
+        try {
+            JsonParser parser = quoteBatchService.openBatch(request.getInputStream());
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(output -> quoteBatchService.quoteBatch(parser, output));
+        } catch (Exception e) {
+            // Streaming bodies bypass the message converters, so the error is serialized here
+            MessageResponse error = new MessageResponse("Error reading quote requests: " + e.getMessage());
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(output -> objectMapper.writeValue(output, error));
+        }
+    }
+
+    /**
+     * Start repricing all historical bookings with candidate rates, poll the returned id for the result
+     */
+    @PostMapping("/simulations")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> startSimulation(@RequestBody RateTableDefinition candidate) {
+        try {
+            return ResponseEntity.accepted().body(repricingService.startSimulation(candidate));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error starting simulation: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/simulations/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getSimulation(@PathVariable String id) {
+        try {
+            RepricingReport report = repricingService.getReport(id)
+                    .orElseThrow(() -> new RuntimeException("Simulation not found with id: " + id));
+            return ResponseEntity.ok(report);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error retrieving simulation: " + e.getMessage()));
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.dwelzy.dwelzy.controller;
 
+import com.dwelzy.dwelzy.dto.BulkScanResponse;
 import com.dwelzy.dwelzy.dto.MessageResponse;
 import com.dwelzy.dwelzy.dto.ScanRequest;
 import com.dwelzy.dwelzy.dto.ScanResponse;
@@ -46,6 +47,23 @@ public class ScanController {
         }
     }
 
+    /**
+     * Process a batch of scans in one call, e.g. from a hub sortation line. Scans that fail are
+     * reported in their result without affecting the rest.
+     */
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('DRIVER') or hasRole('ADMIN') or hasRole('HUB_MANAGER')")
+    public ResponseEntity<?> processBulkScans(@RequestBody List<ScanRequest> scanRequests,
+                                              Authentication authentication) {
+        try {
+            return ResponseEntity.ok(new BulkScanResponse(
+                    scanService.processBulkScans(scanRequests, authentication.getName())));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new MessageResponse("Error processing scans: " + e.getMessage()));
+        }
+    }
+
     @GetMapping("/booking/{bookingNumber}/events")
     @PreAuthorize("hasRole('USER') or hasRole('DRIVER') or hasRole('ADMIN') or hasRole('HUB_MANAGER')")
     public ResponseEntity<?> getBookingEvents(@PathVariable String bookingNumber) {
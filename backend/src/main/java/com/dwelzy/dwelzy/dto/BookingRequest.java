@@ -36,6 +36,8 @@ public class BookingRequest {
     private Double length;
     private Double width;
     private Double height;
+
+    @Size(max = 50)
     private String itemType;
 
     // Constructors
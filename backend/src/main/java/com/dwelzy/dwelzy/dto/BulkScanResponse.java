@@ -0,0 +1,47 @@
+package com.dwelzy.dwelzy.dto;
+
+import java.util.List;
+
+/**
+ * Per-scan results of a bulk scan request, in request order
+ */
+public class BulkScanResponse {
+
+    private int processedCount;
+    private int failedCount;
+    private List<BulkScanResult> results;
+
+    // Constructors
+    public BulkScanResponse() {}
+
+    public BulkScanResponse(List<BulkScanResult> results) {
+        this.results = results;
+        this.failedCount = (int) results.stream().filter(result -> result.getError() != null).count();
+        this.processedCount = results.size() - failedCount;
+    }
+
+    // Getters and Setters
+    public int getProcessedCount() {
+        return processedCount;
+    }
+
+    public void setProcessedCount(int processedCount) {
+        this.processedCount = processedCount;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(int failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public List<BulkScanResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BulkScanResult> results) {
+        this.results = results;
+    }
+}
@@ -0,0 +1,74 @@
+package com.dwelzy.dwelzy.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one scan of a bulk request: the recorded event and resulting booking status, or why it failed
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkScanResult {
+
+    private int index;
+    private String bookingNumber;
+    private Long eventId;
+    private String eventType;
+    private String currentStatus;
+    private String error;
+
+    // Constructors
+    public BulkScanResult() {}
+
+    public BulkScanResult(int index, String bookingNumber) {
+        this.index = index;
+        this.bookingNumber = bookingNumber;
+    }
+
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getBookingNumber() {
+        return bookingNumber;
+    }
+
+    public void setBookingNumber(String bookingNumber) {
+        this.bookingNumber = bookingNumber;
+    }
+
+    public Long getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(Long eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getCurrentStatus() {
+        return currentStatus;
+    }
+
+    public void setCurrentStatus(String currentStatus) {
+        this.currentStatus = currentStatus;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -18,6 +18,9 @@ public class ItemAnalysisResponse {
     private BigDecimal estimatedPrice;
     private Double confidence;
     private String analysisId;
+    private String imageUrl;
+    // EXACT or SIMILAR when the analysis was reused from an earlier upload
+    private String cacheMatch;
     
     // Constructors
     public ItemAnalysisResponse() {}
@@ -126,4 +129,20 @@ public class ItemAnalysisResponse {
     public void setAnalysisId(String analysisId) {
         this.analysisId = analysisId;
     }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+    
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public String getCacheMatch() {
+        return cacheMatch;
+    }
+    
+    public void setCacheMatch(String cacheMatch) {
+        this.cacheMatch = cacheMatch;
+    }
 }
@@ -0,0 +1,58 @@
+package com.dwelzy.dwelzy.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One line of a batch analysis response: the analysis of one uploaded image, or why it failed
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ItemBatchAnalysisResult {
+
+    private int index;
+    private String fileName;
+    private ItemAnalysisResponse analysis;
+    private String error;
+
+    // Constructors
+    public ItemBatchAnalysisResult() {}
+
+    public ItemBatchAnalysisResult(int index, String fileName, ItemAnalysisResponse analysis, String error) {
+        this.index = index;
+        this.fileName = fileName;
+        this.analysis = analysis;
+        this.error = error;
+    }
+
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public ItemAnalysisResponse getAnalysis() {
+        return analysis;
+    }
+
+    public void setAnalysis(ItemAnalysisResponse analysis) {
+        this.analysis = analysis;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,78 @@
+package com.dwelzy.dwelzy.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Last line of a batch analysis response. The itemized price sums each item priced on its own;
+ * the combined price quotes the analyzed items as a single shipment.
+ */
+public class ItemBatchSummary {
+
+    private int itemCount;
+    private int analyzedCount;
+    private int failedCount;
+    private double totalEstimatedWeight;
+    private double totalEstimatedVolume;
+    private BigDecimal itemizedEstimatedPrice;
+    private BigDecimal combinedEstimatedPrice;
+
+    // Constructors
+    public ItemBatchSummary() {}
+
+    // Getters and Setters
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(int itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    public int getAnalyzedCount() {
+        return analyzedCount;
+    }
+
+    public void setAnalyzedCount(int analyzedCount) {
+        this.analyzedCount = analyzedCount;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(int failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public double getTotalEstimatedWeight() {
+        return totalEstimatedWeight;
+    }
+
+    public void setTotalEstimatedWeight(double totalEstimatedWeight) {
+        this.totalEstimatedWeight = totalEstimatedWeight;
+    }
+
+    public double getTotalEstimatedVolume() {
+        return totalEstimatedVolume;
+    }
+
+    public void setTotalEstimatedVolume(double totalEstimatedVolume) {
+        this.totalEstimatedVolume = totalEstimatedVolume;
+    }
+
+    public BigDecimal getItemizedEstimatedPrice() {
+        return itemizedEstimatedPrice;
+    }
+
+    public void setItemizedEstimatedPrice(BigDecimal itemizedEstimatedPrice) {
+        this.itemizedEstimatedPrice = itemizedEstimatedPrice;
+    }
+
+    public BigDecimal getCombinedEstimatedPrice() {
+        return combinedEstimatedPrice;
+    }
+
+    public void setCombinedEstimatedPrice(BigDecimal combinedEstimatedPrice) {
+        this.combinedEstimatedPrice = combinedEstimatedPrice;
+    }
+}
@@ -0,0 +1,47 @@
+package com.dwelzy.dwelzy.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class QuoteResponse {
+
+    private String id;
+    private BigDecimal price;
+    private String error;
+
+    // Constructors
+    public QuoteResponse() {}
+
+    public QuoteResponse(String id, BigDecimal price, String error) {
+        this.id = id;
+        this.price = price;
+        this.error = error;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
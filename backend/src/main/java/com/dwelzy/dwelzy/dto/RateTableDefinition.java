@@ -0,0 +1,221 @@
+package com.dwelzy.dwelzy.dto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pricing rates as written in the rate table file. All amounts are in cents.
+ */
+public class RateTableDefinition {
+
+    private String name;
+    private long baseCents;
+    private List<Bracket> distanceBrackets = new ArrayList<>();
+    private List<Bracket> weightBrackets = new ArrayList<>();
+    private List<Bracket> volumeBrackets = new ArrayList<>();
+    private Map<String, Long> itemTypeSurcharges = new HashMap<>();
+    private Map<String, Long> zoneSurcharges = new HashMap<>();
+    private List<TimeWindow> timeOfDaySurcharges = new ArrayList<>();
+    private int urgentWithinHours;
+    private long urgentSurchargeCents;
+    private List<SurgeLevel> surgeLevels = new ArrayList<>();
+
+    // Constructors
+    public RateTableDefinition() {}
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getBaseCents() {
+        return baseCents;
+    }
+
+    public void setBaseCents(long baseCents) {
+        this.baseCents = baseCents;
+    }
+
+    public List<Bracket> getDistanceBrackets() {
+        return distanceBrackets;
+    }
+
+    public void setDistanceBrackets(List<Bracket> distanceBrackets) {
+        this.distanceBrackets = distanceBrackets;
+    }
+
+    public List<Bracket> getWeightBrackets() {
+        return weightBrackets;
+    }
+
+    public void setWeightBrackets(List<Bracket> weightBrackets) {
+        this.weightBrackets = weightBrackets;
+    }
+
+    public List<Bracket> getVolumeBrackets() {
+        return volumeBrackets;
+    }
+
+    public void setVolumeBrackets(List<Bracket> volumeBrackets) {
+        this.volumeBrackets = volumeBrackets;
+    }
+
+    public Map<String, Long> getItemTypeSurcharges() {
+        return itemTypeSurcharges;
+    }
+
+    public void setItemTypeSurcharges(Map<String, Long> itemTypeSurcharges) {
+        this.itemTypeSurcharges = itemTypeSurcharges;
+    }
+
+    public Map<String, Long> getZoneSurcharges() {
+        return zoneSurcharges;
+    }
+
+    public void setZoneSurcharges(Map<String, Long> zoneSurcharges) {
+        this.zoneSurcharges = zoneSurcharges;
+    }
+
+    public List<TimeWindow> getTimeOfDaySurcharges() {
+        return timeOfDaySurcharges;
+    }
+
+    public void setTimeOfDaySurcharges(List<TimeWindow> timeOfDaySurcharges) {
+        this.timeOfDaySurcharges = timeOfDaySurcharges;
+    }
+
+    public int getUrgentWithinHours() {
+        return urgentWithinHours;
+    }
+
+    public void setUrgentWithinHours(int urgentWithinHours) {
+        this.urgentWithinHours = urgentWithinHours;
+    }
+
+    public long getUrgentSurchargeCents() {
+        return urgentSurchargeCents;
+    }
+
+    public void setUrgentSurchargeCents(long urgentSurchargeCents) {
+        this.urgentSurchargeCents = urgentSurchargeCents;
+    }
+
+    public List<SurgeLevel> getSurgeLevels() {
+        return surgeLevels;
+    }
+
+    public void setSurgeLevels(List<SurgeLevel> surgeLevels) {
+        this.surgeLevels = surgeLevels;
+    }
+
+    /**
+     * Rate for the part of a quantity (km, kg or volume) above from, up to the next bracket's from.
+     * flatCents is charged once when the quantity reaches the bracket.
+     */
+    public static class Bracket {
+        private double from;
+        private long flatCents;
+        private double centsPerUnit;
+
+        public Bracket() {}
+
+        public Bracket(double from, long flatCents, double centsPerUnit) {
+            this.from = from;
+            this.flatCents = flatCents;
+            this.centsPerUnit = centsPerUnit;
+        }
+
+        public double getFrom() {
+            return from;
+        }
+
+        public void setFrom(double from) {
+            this.from = from;
+        }
+
+        public long getFlatCents() {
+            return flatCents;
+        }
+
+        public void setFlatCents(long flatCents) {
+            this.flatCents = flatCents;
+        }
+
+        public double getCentsPerUnit() {
+            return centsPerUnit;
+        }
+
+        public void setCentsPerUnit(double centsPerUnit) {
+            this.centsPerUnit = centsPerUnit;
+        }
+    }
+
+    /**
+     * Surcharge for pickups scheduled from fromHour (inclusive) to toHour (exclusive), wrapping past midnight;
+     * equal hours cover the whole day
+     */
+    public static class TimeWindow {
+        private int fromHour;
+        private int toHour;
+        private long cents;
+
+        public TimeWindow() {}
+
+        public int getFromHour() {
+            return fromHour;
+        }
+
+        public void setFromHour(int fromHour) {
+            this.fromHour = fromHour;
+        }
+
+        public int getToHour() {
+            return toHour;
+        }
+
+        public void setToHour(int toHour) {
+            this.toHour = toHour;
+        }
+
+        public long getCents() {
+            return cents;
+        }
+
+        public void setCents(long cents) {
+            this.cents = cents;
+        }
+    }
+
+    /**
+     * Multiplier for the whole price once a pickup hub has at least minDemandRatio waiting bookings
+     * per available driver; the highest level reached applies
+     */
+    public static class SurgeLevel {
+        private double minDemandRatio;
+        private double multiplier;
+
+        public SurgeLevel() {}
+
+        public double getMinDemandRatio() {
+            return minDemandRatio;
+        }
+
+        public void setMinDemandRatio(double minDemandRatio) {
+            this.minDemandRatio = minDemandRatio;
+        }
+
+        public double getMultiplier() {
+            return multiplier;
+        }
+
+        public void setMultiplier(double multiplier) {
+            this.multiplier = multiplier;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.dwelzy.dwelzy.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Progress and result of a what-if repricing of all historical bookings under a candidate rate table
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RepricingReport {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private String id;
+    private Status status;
+    private String rateTableName;
+    private long bookingsProcessed;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String error;
+    private RevenueDelta total;
+    private List<RevenueDelta> byPickupHub = new ArrayList<>();
+    private List<RevenueDelta> byItemType = new ArrayList<>();
+
+    // Constructors
+    public RepricingReport() {}
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getRateTableName() {
+        return rateTableName;
+    }
+
+    public void setRateTableName(String rateTableName) {
+        this.rateTableName = rateTableName;
+    }
+
+    public long getBookingsProcessed() {
+        return bookingsProcessed;
+    }
+
+    public void setBookingsProcessed(long bookingsProcessed) {
+        this.bookingsProcessed = bookingsProcessed;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public RevenueDelta getTotal() {
+        return total;
+    }
+
+    public void setTotal(RevenueDelta total) {
+        this.total = total;
+    }
+
+    public List<RevenueDelta> getByPickupHub() {
+        return byPickupHub;
+    }
+
+    public void setByPickupHub(List<RevenueDelta> byPickupHub) {
+        this.byPickupHub = byPickupHub;
+    }
+
+    public List<RevenueDelta> getByItemType() {
+        return byItemType;
+    }
+
+    public void setByItemType(List<RevenueDelta> byItemType) {
+        this.byItemType = byItemType;
+    }
+
+    /**
+     * Revenue of one group of bookings: as charged, repriced with the current rates and repriced
+     * with the candidate rates. The delta is candidate minus current, so both sides see the same inputs.
+     */
+    public static class RevenueDelta {
+        private String key;
+        private long bookings;
+        private BigDecimal chargedRevenue;
+        private BigDecimal currentRevenue;
+        private BigDecimal candidateRevenue;
+        private BigDecimal delta;
+
+        public RevenueDelta() {}
+
+        public RevenueDelta(String key, long bookings, BigDecimal chargedRevenue,
+                            BigDecimal currentRevenue, BigDecimal candidateRevenue) {
+            this.key = key;
+            this.bookings = bookings;
+            this.chargedRevenue = chargedRevenue;
+            this.currentRevenue = currentRevenue;
+            this.candidateRevenue = candidateRevenue;
+            this.delta = candidateRevenue.subtract(currentRevenue);
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public void setKey(String key) {
+            this.key = key;
+        }
+
+        public long getBookings() {
+            return bookings;
+        }
+
+        public void setBookings(long bookings) {
+            this.bookings = bookings;
+        }
+
+        public BigDecimal getChargedRevenue() {
+            return chargedRevenue;
+        }
+
+        public void setChargedRevenue(BigDecimal chargedRevenue) {
+            this.chargedRevenue = chargedRevenue;
+        }
+
+        public BigDecimal getCurrentRevenue() {
+            return currentRevenue;
+        }
+
+        public void setCurrentRevenue(BigDecimal currentRevenue) {
+            this.currentRevenue = currentRevenue;
+        }
+
+        public BigDecimal getCandidateRevenue() {
+            return candidateRevenue;
+        }
+
+        public void setCandidateRevenue(BigDecimal candidateRevenue) {
+            this.candidateRevenue = candidateRevenue;
+        }
+
+        public BigDecimal getDelta() {
+            return delta;
+        }
+
+        public void setDelta(BigDecimal delta) {
+            this.delta = delta;
+        }
+    }
+}
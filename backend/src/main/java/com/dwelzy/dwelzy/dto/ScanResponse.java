@@ -16,6 +16,7 @@ public class ScanResponse {
     private BigDecimal latitude;
     private BigDecimal longitude;
     private String notes;
+    private String imageUrl;
     private String scannedBy;
     private String currentStatus;
     private String nextExpectedEvent;
@@ -33,6 +34,7 @@ public class ScanResponse {
         this.latitude = event.getLatitude();
         this.longitude = event.getLongitude();
         this.notes = event.getAdditionalNotes();
+        this.imageUrl = event.getImageUrl();
         this.currentStatus = event.getBooking().getStatus().name();
         
         if (event.getCreatedBy() != null) {
@@ -127,6 +129,14 @@ public class ScanResponse {
         this.notes = notes;
     }
 
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
     public String getScannedBy() {
         return scannedBy;
     }
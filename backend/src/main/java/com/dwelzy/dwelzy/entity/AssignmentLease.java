@@ -0,0 +1,57 @@
+package com.dwelzy.dwelzy.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "assignment_leases")
+public class AssignmentLease extends BaseEntity {
+
+    @NotBlank
+    @Size(max = 50)
+    @Column(name = "partition_key", nullable = false, unique = true)
+    private String partitionKey;
+
+    @Size(max = 100)
+    @Column(name = "owner_id")
+    private String ownerId;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Constructors
+    public AssignmentLease() {}
+
+    public AssignmentLease(String partitionKey, LocalDateTime expiresAt) {
+        this.partitionKey = partitionKey;
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters and Setters
+    public String getPartitionKey() {
+        return partitionKey;
+    }
+
+    public void setPartitionKey(String partitionKey) {
+        this.partitionKey = partitionKey;
+    }
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(String ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
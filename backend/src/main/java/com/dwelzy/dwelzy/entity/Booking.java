@@ -80,6 +80,23 @@ public class Booking extends BaseEntity {
     @Column(name = "distance_km", precision = 8, scale = 2)
     private BigDecimal distanceKm;
 
+    // Item details the booking was priced with
+    @Column(name = "weight_kg")
+    private Double weight;
+
+    @Column(name = "length")
+    private Double length;
+
+    @Column(name = "width")
+    private Double width;
+
+    @Column(name = "height")
+    private Double height;
+
+    @Size(max = 50)
+    @Column(name = "item_type")
+    private String itemType;
+
     @Size(max = 500)
     @Column(name = "special_instructions")
     private String specialInstructions;
@@ -247,6 +264,46 @@ public class Booking extends BaseEntity {
         this.distanceKm = distanceKm;
     }
 
+    public Double getWeight() {
+        return weight;
+    }
+
+    public void setWeight(Double weight) {
+        this.weight = weight;
+    }
+
+    public Double getLength() {
+        return length;
+    }
+
+    public void setLength(Double length) {
+        this.length = length;
+    }
+
+    public Double getWidth() {
+        return width;
+    }
+
+    public void setWidth(Double width) {
+        this.width = width;
+    }
+
+    public Double getHeight() {
+        return height;
+    }
+
+    public void setHeight(Double height) {
+        this.height = height;
+    }
+
+    public String getItemType() {
+        return itemType;
+    }
+
+    public void setItemType(String itemType) {
+        this.itemType = itemType;
+    }
+
     public String getSpecialInstructions() {
         return specialInstructions;
     }
@@ -1,5 +1,6 @@
 package com.dwelzy.dwelzy.entity;
 
+import com.dwelzy.dwelzy.service.LocationIndexListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -10,6 +11,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "hubs")
+@EntityListeners(LocationIndexListener.class)
 public class Hub extends BaseEntity {
 
     @NotBlank
@@ -0,0 +1,17 @@
+package com.dwelzy.dwelzy.event;
+
+/**
+ * Published when a booking reaches CONFIRMED and is waiting for a driver
+ */
+public class BookingConfirmedEvent {
+
+    private final Long bookingId;
+
+    public BookingConfirmedEvent(Long bookingId) {
+        this.bookingId = bookingId;
+    }
+
+    public Long getBookingId() {
+        return bookingId;
+    }
+}
@@ -0,0 +1,17 @@
+package com.dwelzy.dwelzy.event;
+
+/**
+ * Published when a driver becomes AVAILABLE for new assignments
+ */
+public class DriverAvailableEvent {
+
+    private final Long driverId;
+
+    public DriverAvailableEvent(Long driverId) {
+        this.driverId = driverId;
+    }
+
+    public Long getDriverId() {
+        return driverId;
+    }
+}
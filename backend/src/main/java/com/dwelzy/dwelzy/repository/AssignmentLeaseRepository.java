@@ -0,0 +1,51 @@
+package com.dwelzy.dwelzy.repository;
+
+import com.dwelzy.dwelzy.entity.AssignmentLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface AssignmentLeaseRepository extends JpaRepository<AssignmentLease, Long> {
+
+    Optional<AssignmentLease> findByPartitionKey(String partitionKey);
+
+    Boolean existsByPartitionKey(String partitionKey);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE AssignmentLease l SET l.ownerId = :ownerId, l.expiresAt = :expiresAt " +
+           "WHERE l.partitionKey = :partitionKey AND (l.ownerId = :ownerId OR l.ownerId IS NULL OR l.expiresAt < :now)")
+    int claim(@Param("partitionKey") String partitionKey,
+              @Param("ownerId") String ownerId,
+              @Param("expiresAt") LocalDateTime expiresAt,
+              @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE AssignmentLease l SET l.expiresAt = :expiresAt " +
+           "WHERE l.partitionKey = :partitionKey AND l.ownerId = :ownerId AND l.expiresAt >= :now")
+    int renew(@Param("partitionKey") String partitionKey,
+              @Param("ownerId") String ownerId,
+              @Param("expiresAt") LocalDateTime expiresAt,
+              @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE AssignmentLease l SET l.ownerId = NULL, l.expiresAt = :now " +
+           "WHERE l.partitionKey = :partitionKey AND l.ownerId = :ownerId")
+    int release(@Param("partitionKey") String partitionKey,
+                @Param("ownerId") String ownerId,
+                @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE AssignmentLease l SET l.ownerId = NULL, l.expiresAt = :now WHERE l.ownerId = :ownerId")
+    int releaseAll(@Param("ownerId") String ownerId, @Param("now") LocalDateTime now);
+}
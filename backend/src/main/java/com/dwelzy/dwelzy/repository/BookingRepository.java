@@ -3,20 +3,28 @@ package com.dwelzy.dwelzy.repository;
 import com.dwelzy.dwelzy.entity.Booking;
 import com.dwelzy.dwelzy.entity.User;
 import com.dwelzy.dwelzy.entity.Driver;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
     Optional<Booking> findByBookingNumber(String bookingNumber);
 
+    List<Booking> findByBookingNumberIn(Collection<String> bookingNumbers);
+
     List<Booking> findByUser(User user);
 
     List<Booking> findByDriver(Driver driver);
@@ -38,6 +46,33 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     @Query("SELECT b FROM Booking b WHERE b.driver IS NULL AND b.status = :status")
     List<Booking> findUnassignedBookingsByStatus(@Param("status") Booking.BookingStatus status);
 
+    @Query("SELECT DISTINCT h.id FROM Booking b LEFT JOIN b.pickupHub h WHERE b.driver IS NULL AND b.status = :status")
+    List<Long> findPickupHubIdsOfUnassignedBookings(@Param("status") Booking.BookingStatus status);
+
+    @Query("SELECT b FROM Booking b WHERE b.driver IS NULL AND b.status = :status AND b.pickupHub.id = :hubId " +
+           "AND b.id > :afterId ORDER BY b.id")
+    List<Booking> findUnassignedBookingsByStatusAndPickupHub(@Param("status") Booking.BookingStatus status,
+                                                             @Param("hubId") Long hubId,
+                                                             @Param("afterId") Long afterId,
+                                                             Pageable pageable);
+
+    @Query("SELECT b FROM Booking b WHERE b.driver IS NULL AND b.status = :status AND b.pickupHub IS NULL " +
+           "AND b.id > :afterId ORDER BY b.id")
+    List<Booking> findUnassignedBookingsByStatusWithoutPickupHub(@Param("status") Booking.BookingStatus status,
+                                                                 @Param("afterId") Long afterId,
+                                                                 Pageable pageable);
+
+    @Query("SELECT h.id, COUNT(b) FROM Booking b LEFT JOIN b.pickupHub h WHERE b.driver IS NULL AND b.status = :status GROUP BY h.id")
+    List<Object[]> countUnassignedBookingsByPickupHub(@Param("status") Booking.BookingStatus status);
+
+    // Must be consumed inside a transaction; callers clear the persistence context as they go
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Booking b")
+    Stream<Booking> streamAll();
+
     @Query("SELECT COUNT(b) FROM Booking b WHERE b.user = :user")
     Long countBookingsByUser(@Param("user") User user);
 
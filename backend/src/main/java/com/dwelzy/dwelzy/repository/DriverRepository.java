@@ -4,6 +4,7 @@ import com.dwelzy.dwelzy.entity.Driver;
 import com.dwelzy.dwelzy.entity.Hub;
 import com.dwelzy.dwelzy.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -40,6 +41,19 @@ public interface DriverRepository extends JpaRepository<Driver, Long> {
     @Query("SELECT d FROM Driver d WHERE d.totalDeliveries >= :minDeliveries ORDER BY d.totalDeliveries DESC")
     List<Driver> findByTotalDeliveriesGreaterThanEqualOrderByTotalDeliveriesDesc(@Param("minDeliveries") Integer minDeliveries);
 
+    // id, rating, totalDeliveries, status, isVerified, hub id, hub latitude, hub longitude
+    @Query("SELECT d.id, d.rating, d.totalDeliveries, d.status, d.isVerified, h.id, h.latitude, h.longitude " +
+           "FROM Driver d LEFT JOIN d.hub h")
+    List<Object[]> findScoringAttributes();
+
+    @Query("SELECT h.id, COUNT(d) FROM Driver d LEFT JOIN d.hub h " +
+           "WHERE d.status = 'AVAILABLE' AND d.isVerified = true GROUP BY h.id")
+    List<Object[]> countAvailableVerifiedDriversByHub();
+
+    @Modifying
+    @Query("UPDATE Driver d SET d.status = 'BUSY' WHERE d.id = :driverId AND d.status = 'AVAILABLE'")
+    int reserveIfAvailable(@Param("driverId") Long driverId);
+
     Boolean existsByLicenseNumber(String licenseNumber);
 
     Boolean existsByUser(User user);
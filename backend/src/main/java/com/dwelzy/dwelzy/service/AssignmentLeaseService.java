@@ -0,0 +1,78 @@
+package com.dwelzy.dwelzy.service;
+
+import com.dwelzy.dwelzy.entity.AssignmentLease;
+import com.dwelzy.dwelzy.repository.AssignmentLeaseRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Database-backed leases that let several backend instances share assignment work.
+ * A node may only process a partition while it holds an unexpired lease on it, so a
+ * crashed node's partitions become claimable again once its leases expire.
+ */
+@Service
+public class AssignmentLeaseService {
+
+    @Autowired
+    private AssignmentLeaseRepository leaseRepository;
+
+    @Value("${dwelzy.app.nodeId:}")
+    private String configuredNodeId;
+
+    @Value("${dwelzy.app.assignmentLeaseMs:120000}")
+    private long leaseMs;
+
+    private String nodeId;
+
+    @PostConstruct
+    void init() {
+        nodeId = configuredNodeId.isBlank() ? UUID.randomUUID().toString() : configuredNodeId;
+    }
+
+    @PreDestroy
+    void releaseOwnedLeases() {
+        leaseRepository.releaseAll(nodeId, LocalDateTime.now());
+    }
+
+    /**
+     * Claim or renew the lease on a partition, returns false when another node holds it
+     */
+    public boolean tryAcquire(String partitionKey) {
+        LocalDateTime now = LocalDateTime.now();
+        if (!leaseRepository.existsByPartitionKey(partitionKey)) {
+            try {
+                leaseRepository.saveAndFlush(new AssignmentLease(partitionKey, now));
+            } catch (DataIntegrityViolationException e) {
+                // Another node created the lease row first, compete for it below
+            }
+        }
+        return leaseRepository.claim(partitionKey, nodeId, now.plusNanos(leaseMs * 1_000_000), now) == 1;
+    }
+
+    /**
+     * Extend a lease this node still holds. Returns false once it has expired, even if no other node
+     * claimed it since, because another node may have processed the partition in the meantime.
+     */
+    public boolean renew(String partitionKey) {
+        LocalDateTime now = LocalDateTime.now();
+        return leaseRepository.renew(partitionKey, nodeId, now.plusNanos(leaseMs * 1_000_000), now) == 1;
+    }
+
+    /**
+     * Give up a lease held by this node so any node can claim the partition again
+     */
+    public void release(String partitionKey) {
+        leaseRepository.release(partitionKey, nodeId, LocalDateTime.now());
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+}
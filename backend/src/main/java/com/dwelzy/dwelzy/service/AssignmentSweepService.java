@@ -0,0 +1,75 @@
+package com.dwelzy.dwelzy.service;
+
+import com.dwelzy.dwelzy.entity.Booking;
+import com.dwelzy.dwelzy.repository.BookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Periodic assignment sweep, partitioned by pickup hub so that several backend instances can run it
+ * at once. Each node visits the pending partitions in random order and only processes the ones it
+ * manages to lease, in batches of bookings that each run in their own transaction. The lease is
+ * renewed between batches, and a node that lost it stops before the next batch.
+ */
+@Service
+public class AssignmentSweepService {
+    private static final Logger logger = LoggerFactory.getLogger(AssignmentSweepService.class);
+
+    private static final String UNASSIGNED_HUB_PARTITION = "hub:none";
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private DriverAssignmentService driverAssignmentService;
+
+    @Autowired
+    private AssignmentLeaseService leaseService;
+
+    @Value("${dwelzy.app.assignmentSweepBatchSize:200}")
+    private int batchSize;
+
+    /**
+     * Scheduled task to automatically assign drivers to pending bookings
+     * Runs every 5 minutes as a safety net behind the event-driven DispatchService
+     */
+    @Scheduled(fixedRate = 300000) // 5 minutes
+    @Async
+    public void autoAssignDrivers() {
+        List<Long> hubIds = new ArrayList<>(
+            bookingRepository.findPickupHubIdsOfUnassignedBookings(Booking.BookingStatus.CONFIRMED)
+        );
+        // Nodes sweeping at the same moment start on different partitions
+        Collections.shuffle(hubIds);
+
+        for (Long hubId : hubIds) {
+            String partitionKey = hubId != null ? "hub:" + hubId : UNASSIGNED_HUB_PARTITION;
+            if (!leaseService.tryAcquire(partitionKey)) {
+                continue;
+            }
+            try {
+                Long afterId = driverAssignmentService.assignPendingBookingsForHub(hubId, 0, batchSize);
+                while (afterId != null) {
+                    if (!leaseService.renew(partitionKey)) {
+                        logger.warn("Lost the lease on partition {}, leaving the rest for the next sweep", partitionKey);
+                        break;
+                    }
+                    afterId = driverAssignmentService.assignPendingBookingsForHub(hubId, afterId, batchSize);
+                }
+            } catch (Exception e) {
+                logger.error("Failed to auto-assign drivers for partition {}: {}", partitionKey, e.getMessage());
+            } finally {
+                leaseService.release(partitionKey);
+            }
+        }
+    }
+}
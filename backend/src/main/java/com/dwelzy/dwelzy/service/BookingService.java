@@ -4,10 +4,13 @@ import com.dwelzy.dwelzy.dto.BookingRequest;
 import com.dwelzy.dwelzy.entity.Booking;
 import com.dwelzy.dwelzy.entity.ShipmentEvent;
 import com.dwelzy.dwelzy.entity.User;
+import com.dwelzy.dwelzy.event.BookingConfirmedEvent;
 import com.dwelzy.dwelzy.repository.BookingRepository;
+import com.dwelzy.dwelzy.repository.HubRepository;
 import com.dwelzy.dwelzy.repository.ShipmentEventRepository;
 import com.dwelzy.dwelzy.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,9 +33,21 @@ public class BookingService {
     @Autowired
     private ShipmentEventRepository shipmentEventRepository;
 
+    @Autowired
+    private HubRepository hubRepository;
+
     @Autowired
     private PricingService pricingService;
 
+    @Autowired
+    private RouteContextService routeContextService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private SurgePricingService surgePricingService;
+
     public Booking createBooking(BookingRequest request, String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found: " + username));
@@ -40,19 +55,15 @@ public class BookingService {
         // Generate unique booking number
         String bookingNumber = generateBookingNumber();
 
-        // Calculate pricing
-        BigDecimal totalPrice = pricingService.calculatePrice(request);
-
-        // Calculate distance if coordinates are provided
-        BigDecimal distance = null;
-        if (request.getPickupLatitude() != null && request.getPickupLongitude() != null &&
-            request.getDeliveryLatitude() != null && request.getDeliveryLongitude() != null) {
-            distance = calculateDistance(
-                request.getPickupLatitude(), request.getPickupLongitude(),
-                request.getDeliveryLatitude(), request.getDeliveryLongitude()
-            );
+        // Distance, hubs and timing, shared by pricing and the booking itself
+        RouteContext route = routeContextService.build(request);
+        if (!route.isServiceable()) {
+            throw new RuntimeException("Pickup or delivery location is in a no-service area");
         }
 
+        // Calculate pricing
+        BigDecimal totalPrice = pricingService.calculatePrice(request, route);
+
         // Create booking
         Booking booking = new Booking(
             bookingNumber,
@@ -70,7 +81,18 @@ public class BookingService {
         booking.setScheduledDeliveryTime(request.getScheduledDeliveryTime());
         booking.setSpecialInstructions(request.getSpecialInstructions());
         booking.setNotes(request.getNotes());
-        booking.setDistanceKm(distance);
+        booking.setDistanceKm(route.distance());
+        booking.setWeight(request.getWeight());
+        booking.setLength(request.getLength());
+        booking.setWidth(request.getWidth());
+        booking.setHeight(request.getHeight());
+        booking.setItemType(request.getItemType());
+        if (route.pickupHubId() != null) {
+            booking.setPickupHub(hubRepository.getReferenceById(route.pickupHubId()));
+        }
+        if (route.deliveryHubId() != null) {
+            booking.setDeliveryHub(hubRepository.getReferenceById(route.deliveryHubId()));
+        }
 
         // Save booking
         booking = bookingRepository.save(booking);
@@ -108,14 +130,23 @@ public class BookingService {
                 .orElseThrow(() -> new RuntimeException("User not found: " + username));
 
         Booking.BookingStatus oldStatus = booking.getStatus();
+        boolean wasWaiting = SurgePricingService.isWaiting(booking);
         booking.setStatus(newStatus);
         booking = bookingRepository.save(booking);
 
+        Long pickupHubId = booking.getPickupHub() != null ? booking.getPickupHub().getId() : null;
+        surgePricingService.onBookingChanged(pickupHubId, wasWaiting, pickupHubId, SurgePricingService.isWaiting(booking));
+
         // Create shipment event for status change
         String description = String.format("Booking status changed from %s to %s", 
                                          oldStatus.name(), newStatus.name());
         createShipmentEvent(booking, getEventTypeForStatus(newStatus), description, user);
 
+        // Hand newly confirmed bookings to the dispatcher once this transaction commits
+        if (newStatus == Booking.BookingStatus.CONFIRMED && oldStatus != Booking.BookingStatus.CONFIRMED) {
+            eventPublisher.publishEvent(new BookingConfirmedEvent(booking.getId()));
+        }
+
         return booking;
     }
 
@@ -144,21 +175,4 @@ public class BookingService {
         String random = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
         return prefix + timestamp.substring(timestamp.length() - 6) + random;
     }
-
-    private BigDecimal calculateDistance(BigDecimal lat1, BigDecimal lon1, BigDecimal lat2, BigDecimal lon2) {
-        // Haversine formula to calculate distance between two points
-        double earthRadius = 6371; // Earth radius in kilometers
-
-        double dLat = Math.toRadians(lat2.doubleValue() - lat1.doubleValue());
-        double dLon = Math.toRadians(lon2.doubleValue() - lon1.doubleValue());
-
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                   Math.cos(Math.toRadians(lat1.doubleValue())) * Math.cos(Math.toRadians(lat2.doubleValue())) *
-                   Math.sin(dLon / 2) * Math.sin(dLon / 2);
-
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        double distance = earthRadius * c;
-
-        return BigDecimal.valueOf(distance);
-    }
 }
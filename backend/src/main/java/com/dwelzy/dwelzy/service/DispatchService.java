@@ -0,0 +1,141 @@
+package com.dwelzy.dwelzy.service;
+
+import com.dwelzy.dwelzy.event.BookingConfirmedEvent;
+import com.dwelzy.dwelzy.event.DriverAvailableEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Event-driven driver dispatch. Confirmed bookings are queued as soon as they commit and a
+ * dispatcher thread assigns them in micro-batches. Bookings that find no driver wait until a
+ * driver is released. The scheduled sweep in AssignmentSweepService remains as a safety net
+ * for anything dropped here (full queue, restart, failed batch).
+ */
+@Service
+public class DispatchService {
+    private static final Logger logger = LoggerFactory.getLogger(DispatchService.class);
+
+    @Autowired
+    private DriverAssignmentService driverAssignmentService;
+
+    @Value("${dwelzy.app.dispatchQueueCapacity:10000}")
+    private int queueCapacity;
+
+    @Value("${dwelzy.app.dispatchBatchSize:200}")
+    private int batchSize;
+
+    @Value("${dwelzy.app.dispatchBatchWindowMs:50}")
+    private long batchWindowMs;
+
+    private BlockingQueue<Long> pendingBookings;
+
+    // Bookings that found no driver, retried when a driver becomes available
+    private final Set<Long> waitingBookings = new LinkedHashSet<>();
+
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        pendingBookings = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "booking-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        dispatcher.interrupt();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingConfirmed(BookingConfirmedEvent event) {
+        enqueue(event.getBookingId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDriverAvailable(DriverAvailableEvent event) {
+        List<Long> retry;
+        synchronized (waitingBookings) {
+            retry = new ArrayList<>(waitingBookings);
+            waitingBookings.clear();
+        }
+        retry.forEach(this::enqueue);
+    }
+
+    public int getQueueDepth() {
+        return pendingBookings.size();
+    }
+
+    private void enqueue(Long bookingId) {
+        if (!pendingBookings.offer(bookingId)) {
+            logger.warn("Dispatch queue full, booking {} left for the scheduled sweep", bookingId);
+        }
+    }
+
+    private void dispatchLoop() {
+        List<Long> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Long first = pendingBookings.take();
+                batch.add(first);
+
+                // Give concurrent confirmations a short window to join the batch
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchWindowMs);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Long next = remaining > 0 ? pendingBookings.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    pendingBookings.drainTo(batch, batchSize - batch.size());
+                }
+
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void dispatch(List<Long> bookingIds) {
+        List<Long> unassigned;
+        try {
+            unassigned = driverAssignmentService.assignDriversToBookings(new ArrayList<>(new LinkedHashSet<>(bookingIds)));
+        } catch (Exception e) {
+            logger.error("Failed to dispatch {} bookings: {}", bookingIds.size(), e.getMessage());
+            unassigned = bookingIds;
+        }
+
+        synchronized (waitingBookings) {
+            waitingBookings.addAll(unassigned);
+            // Keep the waiting set bounded, the sweep picks up anything evicted here
+            Iterator<Long> oldest = waitingBookings.iterator();
+            while (waitingBookings.size() > queueCapacity && oldest.hasNext()) {
+                oldest.next();
+                oldest.remove();
+            }
+        }
+    }
+}
@@ -2,22 +2,32 @@ package com.dwelzy.dwelzy.service;
 
 import com.dwelzy.dwelzy.entity.Booking;
 import com.dwelzy.dwelzy.entity.Driver;
-import com.dwelzy.dwelzy.entity.Hub;
 import com.dwelzy.dwelzy.entity.ShipmentEvent;
+import com.dwelzy.dwelzy.event.DriverAvailableEvent;
 import com.dwelzy.dwelzy.repository.BookingRepository;
 import com.dwelzy.dwelzy.repository.DriverRepository;
 import com.dwelzy.dwelzy.repository.HubRepository;
 import com.dwelzy.dwelzy.repository.ShipmentEventRepository;
+import com.dwelzy.dwelzy.util.AssignmentSolver;
+import com.dwelzy.dwelzy.util.GeoMath;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 @Transactional
@@ -35,22 +45,288 @@ public class DriverAssignmentService {
     @Autowired
     private ShipmentEventRepository shipmentEventRepository;
 
+    @Autowired
+    private DriverLocatorService driverLocatorService;
+
+    @Autowired
+    private DriverReservationService driverReservationService;
+
+    @Autowired
+    private DriverSnapshotService driverSnapshotService;
+
+    @Autowired
+    private SurgePricingService surgePricingService;
+
+    @Autowired
+    private RouteContextService routeContextService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Largest bookings/drivers dimension solved optimally, bigger batches fall back to greedy matching
+    @Value("${dwelzy.app.assignmentOptimalMaxSize:300}")
+    private int assignmentOptimalMaxSize;
+
+    // Nearest drivers scored per booking
+    @Value("${dwelzy.app.assignmentCandidateLimit:50}")
+    private int assignmentCandidateLimit;
+
+    // Drivers tried per booking before giving up when concurrent assignments keep taking them
+    @Value("${dwelzy.app.assignmentReservationAttempts:5}")
+    private int assignmentReservationAttempts;
+
     /**
-     * Scheduled task to automatically assign drivers to pending bookings
-     * Runs every 5 minutes
+     * Assign drivers to the next batch of confirmed, unassigned bookings picked up at the hub, in id
+     * order after afterId. A null hub selects the bookings that have no pickup hub yet.
+     * Returns the id to continue after, or null when the hub has no more bookings
      */
-    @Scheduled(fixedRate = 300000) // 5 minutes
-    @Async
-    public void autoAssignDrivers() {
-        List<Booking> pendingBookings = bookingRepository.findUnassignedBookingsByStatus(Booking.BookingStatus.CONFIRMED);
-        
-        for (Booking booking : pendingBookings) {
-            try {
-                assignDriverToBooking(booking.getId());
-            } catch (Exception e) {
-                System.err.println("Failed to assign driver to booking " + booking.getId() + ": " + e.getMessage());
+    public Long assignPendingBookingsForHub(Long hubId, long afterId, int batchSize) {
+        PageRequest batch = PageRequest.of(0, batchSize);
+        List<Booking> pendingBookings = hubId != null
+                ? bookingRepository.findUnassignedBookingsByStatusAndPickupHub(Booking.BookingStatus.CONFIRMED, hubId, afterId, batch)
+                : bookingRepository.findUnassignedBookingsByStatusWithoutPickupHub(Booking.BookingStatus.CONFIRMED, afterId, batch);
+        assignDriversInBatch(pendingBookings);
+        return pendingBookings.size() < batchSize ? null : pendingBookings.get(pendingBookings.size() - 1).getId();
+    }
+
+    /**
+     * Assign drivers to the given bookings that are still confirmed and unassigned
+     * Returns the ids of those bookings that are still waiting for a driver
+     */
+    public List<Long> assignDriversToBookings(List<Long> bookingIds) {
+        List<Booking> pendingBookings = bookingRepository.findAllById(bookingIds).stream()
+                .filter(booking -> booking.getStatus() == Booking.BookingStatus.CONFIRMED && booking.getDriver() == null)
+                .toList();
+
+        Set<Long> assignedIds = new HashSet<>();
+        assignDriversInBatch(pendingBookings).forEach(booking -> assignedIds.add(booking.getId()));
+
+        return pendingBookings.stream()
+                .map(Booking::getId)
+                .filter(id -> !assignedIds.contains(id))
+                .toList();
+    }
+
+    /**
+     * Match a batch of bookings against a single snapshot of the available drivers
+     * and save all resulting assignments together
+     */
+    public List<Booking> assignDriversInBatch(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return List.of();
+        }
+
+        CandidateDrivers candidates = findCandidateDrivers(bookings);
+        List<Driver> availableDrivers = candidates.drivers();
+        if (availableDrivers.isEmpty()) {
+            return List.of();
+        }
+
+        int[] matches = matchBookingsToDrivers(bookings, candidates);
+        reserveMatchedDrivers(bookings, candidates, matches);
+
+        List<Booking> assignedBookings = new ArrayList<>();
+        List<Driver> assignedDrivers = new ArrayList<>();
+        List<ShipmentEvent> events = new ArrayList<>();
+        for (int i = 0; i < matches.length; i++) {
+            if (matches[i] == AssignmentSolver.UNASSIGNED) {
+                continue;
+            }
+            Booking booking = bookings.get(i);
+            Driver driver = availableDrivers.get(matches[i]);
+
+            boolean wasWaiting = SurgePricingService.isWaiting(booking);
+            booking.setDriver(driver);
+            booking.setStatus(Booking.BookingStatus.ASSIGNED);
+            surgePricingService.onBookingChanged(pickupHubId(booking), wasWaiting, pickupHubId(booking), false);
+
+            assignedBookings.add(booking);
+            assignedDrivers.add(driver);
+            events.add(buildShipmentEvent(booking, ShipmentEvent.EventType.DRIVER_ASSIGNED,
+                                          "Driver " + driver.getUser().getFullName() + " assigned to booking"));
+        }
+
+        List<Booking> saved = bookingRepository.saveAll(assignedBookings);
+        driverRepository.saveAll(assignedDrivers);
+        shipmentEventRepository.saveAll(events);
+
+        return saved;
+    }
+
+    /**
+     * Solve the booking to driver matching, optimally for small batches and greedily above the size limit
+     * Returns for each booking the index of its driver, or AssignmentSolver.UNASSIGNED
+     */
+    private int[] matchBookingsToDrivers(List<Booking> bookings, CandidateDrivers candidates) {
+        List<Driver> drivers = candidates.drivers();
+        if (Math.max(bookings.size(), drivers.size()) > assignmentOptimalMaxSize) {
+            return greedyMatchBookingsToDrivers(bookings, candidates);
+        }
+
+        double[][] scores = new double[bookings.size()][drivers.size()];
+        for (int i = 0; i < bookings.size(); i++) {
+            Booking booking = bookings.get(i);
+            for (int j = 0; j < drivers.size(); j++) {
+                scores[i][j] = scoreCandidate(candidates, j, booking, i);
+            }
+        }
+        return AssignmentSolver.maximize(scores);
+    }
+
+    private int[] greedyMatchBookingsToDrivers(List<Booking> bookings, CandidateDrivers candidates) {
+        List<Driver> drivers = candidates.drivers();
+        int[] matches = new int[bookings.size()];
+        boolean[] taken = new boolean[drivers.size()];
+        int remainingDrivers = drivers.size();
+
+        for (int i = 0; i < bookings.size(); i++) {
+            matches[i] = AssignmentSolver.UNASSIGNED;
+            if (remainingDrivers == 0) {
+                continue;
+            }
+
+            matches[i] = findBestFreeDriver(bookings.get(i), candidates, i, taken);
+            taken[matches[i]] = true;
+            remainingDrivers--;
+        }
+        return matches;
+    }
+
+    /**
+     * Claim the matched drivers. A booking whose driver was taken by a concurrent assignment
+     * falls back to its next-best free candidates, up to the configured number of attempts.
+     */
+    private void reserveMatchedDrivers(List<Booking> bookings, CandidateDrivers candidates, int[] matches) {
+        List<Driver> drivers = candidates.drivers();
+        boolean[] taken = new boolean[drivers.size()];
+        List<Integer> matched = new ArrayList<>();
+        for (int i = 0; i < matches.length; i++) {
+            if (matches[i] != AssignmentSolver.UNASSIGNED) {
+                taken[matches[i]] = true;
+                matched.add(i);
+            }
+        }
+
+        // Claim rows in driver id order so concurrent batches lock them in the same order
+        matched.sort(Comparator.comparing(i -> drivers.get(matches[i]).getId()));
+        List<Integer> lost = new ArrayList<>();
+        for (int i : matched) {
+            if (!driverReservationService.tryReserve(drivers.get(matches[i]))) {
+                matches[i] = AssignmentSolver.UNASSIGNED;
+                lost.add(i);
+            }
+        }
+
+        for (int i : lost) {
+            for (int attempt = 1; attempt < assignmentReservationAttempts; attempt++) {
+                int next = findBestFreeDriver(bookings.get(i), candidates, i, taken);
+                if (next == AssignmentSolver.UNASSIGNED) {
+                    break;
+                }
+                taken[next] = true;
+                if (driverReservationService.tryReserve(drivers.get(next))) {
+                    matches[i] = next;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Highest scoring driver not yet taken, preferring the booking's nearest candidates
+     * Returns AssignmentSolver.UNASSIGNED when every driver is taken
+     */
+    private int findBestFreeDriver(Booking booking, CandidateDrivers candidates, int bookingIndex, boolean[] taken) {
+        List<Driver> drivers = candidates.drivers();
+        int best = AssignmentSolver.UNASSIGNED;
+        double bestScore = -1;
+
+        int[] nearest = candidates.perBooking()[bookingIndex];
+        if (nearest != null) {
+            for (int j : nearest) {
+                if (!taken[j]) {
+                    double score = scoreCandidate(candidates, j, booking, bookingIndex);
+                    if (score > bestScore) {
+                        bestScore = score;
+                        best = j;
+                    }
+                }
+            }
+        }
+
+        // All nearby drivers are taken (or the booking has no location), consider everyone left
+        if (best == AssignmentSolver.UNASSIGNED) {
+            for (int j = 0; j < drivers.size(); j++) {
+                if (!taken[j]) {
+                    double score = scoreCandidate(candidates, j, booking, bookingIndex);
+                    if (score > bestScore) {
+                        bestScore = score;
+                        best = j;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Load the drivers worth scoring for the bookings. When the location index is ready these are the
+     * nearest available drivers to each pickup, otherwise every available verified driver.
+     */
+    private CandidateDrivers findCandidateDrivers(List<Booking> bookings) {
+        int[][] perBooking = new int[bookings.size()][];
+        if (!driverLocatorService.isReady()) {
+            return candidateDrivers(bookings, driverRepository.findAvailableVerifiedDrivers(), perBooking);
+        }
+
+        List<List<Long>> nearestIds = new ArrayList<>(bookings.size());
+        Set<Long> candidateIds = new LinkedHashSet<>();
+        for (Booking booking : bookings) {
+            if (booking.getPickupLatitude() == null || booking.getPickupLongitude() == null) {
+                return candidateDrivers(bookings, driverRepository.findAvailableVerifiedDrivers(), perBooking);
             }
+            List<Long> ids = driverLocatorService.findNearestAvailableDrivers(
+                booking.getPickupLatitude().doubleValue(), booking.getPickupLongitude().doubleValue(),
+                assignmentCandidateLimit
+            );
+            nearestIds.add(ids);
+            candidateIds.addAll(ids);
+        }
+
+        // The index is only updated after commit, so the database has the final say on availability
+        List<Driver> drivers = driverRepository.findAllById(candidateIds).stream()
+                .filter(driver -> driver.getStatus() == Driver.DriverStatus.AVAILABLE &&
+                                  Boolean.TRUE.equals(driver.getIsVerified()))
+                .toList();
+        if (drivers.isEmpty()) {
+            return candidateDrivers(bookings, driverRepository.findAvailableVerifiedDrivers(), perBooking);
+        }
+
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int j = 0; j < drivers.size(); j++) {
+            positions.put(drivers.get(j).getId(), j);
         }
+        for (int i = 0; i < bookings.size(); i++) {
+            perBooking[i] = nearestIds.get(i).stream()
+                    .map(positions::get)
+                    .filter(Objects::nonNull)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+        return candidateDrivers(bookings, drivers, perBooking);
+    }
+
+    private CandidateDrivers candidateDrivers(List<Booking> bookings, List<Driver> drivers, int[][] perBooking) {
+        DriverSnapshot snapshot = driverSnapshotService.getSnapshot();
+        int[] snapshotRows = new int[drivers.size()];
+        for (int j = 0; j < drivers.size(); j++) {
+            snapshotRows[j] = snapshot.indexOf(drivers.get(j).getId());
+        }
+        DriverSnapshot.Target[] targets = new DriverSnapshot.Target[bookings.size()];
+        for (int i = 0; i < bookings.size(); i++) {
+            targets[i] = DriverSnapshot.Target.of(bookings.get(i));
+        }
+        return new CandidateDrivers(drivers, perBooking, snapshot, snapshotRows, targets);
     }
 
     /**
@@ -64,19 +340,18 @@ public class DriverAssignmentService {
             throw new RuntimeException("Booking already has a driver assigned");
         }
 
-        // Find the best available driver
-        Driver assignedDriver = findBestAvailableDriver(booking);
+        // Find and claim the best available driver
+        Driver assignedDriver = reserveBestAvailableDriver(booking);
         
         if (assignedDriver == null) {
             throw new RuntimeException("No available drivers found for this booking");
         }
 
         // Assign driver to booking
+        boolean wasWaiting = SurgePricingService.isWaiting(booking);
         booking.setDriver(assignedDriver);
         booking.setStatus(Booking.BookingStatus.ASSIGNED);
-        
-        // Update driver status
-        assignedDriver.setStatus(Driver.DriverStatus.BUSY);
+        surgePricingService.onBookingChanged(pickupHubId(booking), wasWaiting, pickupHubId(booking), false);
         
         // Save changes
         booking = bookingRepository.save(booking);
@@ -90,47 +365,48 @@ public class DriverAssignmentService {
     }
 
     /**
-     * Find the best available driver for a booking based on various criteria
+     * Find the best available driver for a booking based on various criteria and claim it,
+     * moving on to the next best when a concurrent assignment took the driver first
      */
-    private Driver findBestAvailableDriver(Booking booking) {
-        // Get all available verified drivers
-        List<Driver> availableDrivers = driverRepository.findAvailableVerifiedDrivers();
-        
-        if (availableDrivers.isEmpty()) {
-            return null;
-        }
-
-        Driver bestDriver = null;
-        double bestScore = -1;
-
-        for (Driver driver : availableDrivers) {
-            double score = calculateDriverScore(driver, booking);
-            if (score > bestScore) {
-                bestScore = score;
-                bestDriver = driver;
+    private Driver reserveBestAvailableDriver(Booking booking) {
+        // Get the nearest available verified drivers
+        CandidateDrivers candidates = findCandidateDrivers(List.of(booking));
+        boolean[] taken = new boolean[candidates.drivers().size()];
+
+        for (int attempt = 0; attempt < assignmentReservationAttempts; attempt++) {
+            int best = findBestFreeDriver(booking, candidates, 0, taken);
+            if (best == AssignmentSolver.UNASSIGNED) {
+                return null;
+            }
+            taken[best] = true;
+            Driver driver = candidates.drivers().get(best);
+            if (driverReservationService.tryReserve(driver)) {
+                return driver;
             }
         }
+        return null;
+    }
 
-        return bestDriver;
+    /**
+     * Score candidate j for booking i, from the driver snapshot when it has the driver
+     */
+    private double scoreCandidate(CandidateDrivers candidates, int j, Booking booking, int bookingIndex) {
+        int row = candidates.snapshotRows()[j];
+        if (row < 0) {
+            return calculateDriverScore(candidates.drivers().get(j), booking);
+        }
+        return candidates.snapshot().score(row, candidates.targets()[bookingIndex]);
     }
 
     /**
      * Calculate a score for a driver based on various factors
      */
-    private double calculateDriverScore(Driver driver, Booking booking) {
+    double calculateDriverScore(Driver driver, Booking booking) {
         double score = 0;
 
-        // Factor 1: Driver rating (0-5 scale, weight: 30%)
-        if (driver.getRating() != null) {
-            score += (driver.getRating() / 5.0) * 0.3;
-        } else {
-            score += 0.15; // Default score for new drivers
-        }
-
-        // Factor 2: Experience (total deliveries, weight: 20%)
-        int deliveries = driver.getTotalDeliveries() != null ? driver.getTotalDeliveries() : 0;
-        double experienceScore = Math.min(deliveries / 100.0, 1.0); // Max score at 100 deliveries
-        score += experienceScore * 0.2;
+        // Factors 1 and 2: Driver rating (weight: 30%) and experience (weight: 20%)
+        score += DriverSnapshot.ratingScore(driver.getRating());
+        score += DriverSnapshot.experienceScore(driver.getTotalDeliveries());
 
         // Factor 3: Proximity to pickup location (weight: 40%)
         double proximityScore = calculateProximityScore(driver, booking);
@@ -158,14 +434,7 @@ public class DriverAssignmentService {
             booking.getPickupLatitude(), booking.getPickupLongitude()
         );
 
-        // Score decreases with distance (max score for distance <= 5km, min score for distance >= 50km)
-        if (distance <= 5) {
-            return 1.0;
-        } else if (distance >= 50) {
-            return 0.1;
-        } else {
-            return 1.0 - ((distance - 5) / 45) * 0.9;
-        }
+        return DriverSnapshot.proximityScore(distance);
     }
 
     /**
@@ -197,30 +466,26 @@ public class DriverAssignmentService {
     public Booking assignHubsToBooking(Long bookingId) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new RuntimeException("Booking not found: " + bookingId));
+        Long oldPickupHubId = pickupHubId(booking);
 
-        // Find nearest hub for pickup
-        if (booking.getPickupLatitude() != null && booking.getPickupLongitude() != null) {
-            List<Hub> nearestHubs = hubRepository.findNearestHubs(
-                booking.getPickupLatitude(), booking.getPickupLongitude()
-            );
-            if (!nearestHubs.isEmpty()) {
-                booking.setPickupHub(nearestHubs.get(0));
-            }
+        // Nearest hubs for pickup and delivery, kept when a location has none
+        RouteContext route = routeContextService.build(booking);
+        if (route.pickupHubId() != null) {
+            booking.setPickupHub(hubRepository.getReferenceById(route.pickupHubId()));
         }
-
-        // Find nearest hub for delivery
-        if (booking.getDeliveryLatitude() != null && booking.getDeliveryLongitude() != null) {
-            List<Hub> nearestHubs = hubRepository.findNearestHubs(
-                booking.getDeliveryLatitude(), booking.getDeliveryLongitude()
-            );
-            if (!nearestHubs.isEmpty()) {
-                booking.setDeliveryHub(nearestHubs.get(0));
-            }
+        if (route.deliveryHubId() != null) {
+            booking.setDeliveryHub(hubRepository.getReferenceById(route.deliveryHubId()));
         }
 
+        boolean waiting = SurgePricingService.isWaiting(booking);
+        surgePricingService.onBookingChanged(oldPickupHubId, waiting, pickupHubId(booking), waiting);
         return bookingRepository.save(booking);
     }
 
+    private static Long pickupHubId(Booking booking) {
+        return booking.getPickupHub() != null ? booking.getPickupHub().getId() : null;
+    }
+
     /**
      * Release a driver from a booking (when delivery is completed or cancelled)
      */
@@ -230,7 +495,10 @@ public class DriverAssignmentService {
 
         if (booking.getDriver() != null) {
             Driver driver = booking.getDriver();
+            boolean wasAvailable = SurgePricingService.isAvailable(driver);
             driver.setStatus(Driver.DriverStatus.AVAILABLE);
+            Long hubId = driver.getHub() != null ? driver.getHub().getId() : null;
+            surgePricingService.onDriverChanged(hubId, wasAvailable, hubId, SurgePricingService.isAvailable(driver));
             
             // Update total deliveries if booking was delivered
             if (booking.getStatus() == Booking.BookingStatus.DELIVERED) {
@@ -239,26 +507,28 @@ public class DriverAssignmentService {
             }
             
             driverRepository.save(driver);
+            eventPublisher.publishEvent(new DriverAvailableEvent(driver.getId()));
         }
     }
 
     private void createShipmentEvent(Booking booking, ShipmentEvent.EventType eventType, String description) {
+        shipmentEventRepository.save(buildShipmentEvent(booking, eventType, description));
+    }
+
+    private ShipmentEvent buildShipmentEvent(Booking booking, ShipmentEvent.EventType eventType, String description) {
         ShipmentEvent event = new ShipmentEvent(booking, eventType, description);
         event.setEventTimestamp(LocalDateTime.now());
-        shipmentEventRepository.save(event);
+        return event;
     }
 
     private double calculateDistance(BigDecimal lat1, BigDecimal lon1, BigDecimal lat2, BigDecimal lon2) {
-        double earthRadius = 6371; // Earth radius in kilometers
-
-        double dLat = Math.toRadians(lat2.doubleValue() - lat1.doubleValue());
-        double dLon = Math.toRadians(lon2.doubleValue() - lon1.doubleValue());
-
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                   Math.cos(Math.toRadians(lat1.doubleValue())) * Math.cos(Math.toRadians(lat2.doubleValue())) *
-                   Math.sin(dLon / 2) * Math.sin(dLon / 2);
-
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return earthRadius * c;
+        return GeoMath.distanceKm(lat1.doubleValue(), lon1.doubleValue(), lat2.doubleValue(), lon2.doubleValue());
     }
+
+    /**
+     * Drivers to score for a batch, with the indexes of each booking's nearest drivers (null means all),
+     * each driver's row in the scoring snapshot (-1 when missing) and each booking's scoring target
+     */
+    private record CandidateDrivers(List<Driver> drivers, int[][] perBooking, DriverSnapshot snapshot,
+                                    int[] snapshotRows, DriverSnapshot.Target[] targets) {}
 }
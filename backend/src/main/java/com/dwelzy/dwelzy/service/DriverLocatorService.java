@@ -0,0 +1,178 @@
+package com.dwelzy.dwelzy.service;
+
+import com.dwelzy.dwelzy.entity.Driver;
+import com.dwelzy.dwelzy.entity.Hub;
+import com.dwelzy.dwelzy.repository.DriverRepository;
+import com.dwelzy.dwelzy.repository.HubRepository;
+import com.dwelzy.dwelzy.util.GeoGridIndex;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory spatial index of available verified drivers, positioned at their hub.
+ * Kept current from driver and hub changes, with a periodic full rebuild as a safety net.
+ */
+@Service
+public class DriverLocatorService {
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private HubRepository hubRepository;
+
+    @Value("${dwelzy.app.driverIndexCellDegrees:0.05}")
+    private double cellDegrees;
+
+    private GeoGridIndex<Long> index;
+
+    // Available drivers and the hub they are positioned at (null when they have no hub)
+    private final Map<Long, Long> availableDriverHubs = new HashMap<>();
+    private final Map<Long, double[]> hubLocations = new HashMap<>();
+    private final Set<Long> unlocatedDrivers = new HashSet<>();
+
+    // Changes that arrive while a rebuild is loading, replayed on top of the loaded state
+    private final List<Runnable> changesDuringRebuild = new ArrayList<>();
+    private boolean rebuilding;
+    private volatile boolean ready;
+
+    @PostConstruct
+    void init() {
+        index = new GeoGridIndex<>(cellDegrees);
+    }
+
+    /**
+     * Reload all available drivers and hub locations from the database
+     */
+    @Scheduled(fixedRateString = "${dwelzy.app.driverIndexRebuildMs:60000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        synchronized (this) {
+            rebuilding = true;
+            changesDuringRebuild.clear();
+        }
+
+        Map<Long, double[]> loadedHubs = new HashMap<>();
+        for (Hub hub : hubRepository.findAll()) {
+            if (hub.getLatitude() != null && hub.getLongitude() != null) {
+                loadedHubs.put(hub.getId(), new double[]{hub.getLatitude().doubleValue(), hub.getLongitude().doubleValue()});
+            }
+        }
+        Map<Long, Long> loadedDrivers = new HashMap<>();
+        for (Driver driver : driverRepository.findAvailableVerifiedDrivers()) {
+            loadedDrivers.put(driver.getId(), driver.getHub() != null ? driver.getHub().getId() : null);
+        }
+
+        synchronized (this) {
+            hubLocations.clear();
+            hubLocations.putAll(loadedHubs);
+            availableDriverHubs.clear();
+            unlocatedDrivers.clear();
+
+            Map<Long, double[]> locations = new HashMap<>();
+            loadedDrivers.forEach((driverId, hubId) -> {
+                availableDriverHubs.put(driverId, hubId);
+                double[] location = hubId != null ? hubLocations.get(hubId) : null;
+                if (location != null) {
+                    locations.put(driverId, location);
+                } else {
+                    unlocatedDrivers.add(driverId);
+                }
+            });
+            index.replaceAll(locations);
+
+            changesDuringRebuild.forEach(Runnable::run);
+            changesDuringRebuild.clear();
+            rebuilding = false;
+            ready = true;
+        }
+    }
+
+    /**
+     * Apply a committed driver change
+     */
+    public synchronized void onDriverChanged(Long driverId, boolean available, Long hubId) {
+        if (rebuilding) {
+            changesDuringRebuild.add(() -> applyDriverChange(driverId, available, hubId));
+        }
+        applyDriverChange(driverId, available, hubId);
+    }
+
+    /**
+     * Apply a committed hub change, moving every available driver positioned at it
+     */
+    public synchronized void onHubChanged(Long hubId, double[] location) {
+        if (rebuilding) {
+            changesDuringRebuild.add(() -> applyHubChange(hubId, location));
+        }
+        applyHubChange(hubId, location);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Ids of the available drivers nearest to the location, followed by any available drivers without a location
+     */
+    public synchronized List<Long> findNearestAvailableDrivers(double latitude, double longitude, int limit) {
+        List<Long> driverIds = new ArrayList<>(index.nearest(latitude, longitude, limit));
+        driverIds.addAll(unlocatedDrivers);
+        return driverIds;
+    }
+
+    /**
+     * Ids of the available drivers within the radius of the location, nearest first
+     */
+    public List<Long> findAvailableDriversWithinRadius(double latitude, double longitude, double radiusKm) {
+        return index.withinRadius(latitude, longitude, radiusKm);
+    }
+
+    private void applyDriverChange(Long driverId, boolean available, Long hubId) {
+        if (!available) {
+            availableDriverHubs.remove(driverId);
+            unlocatedDrivers.remove(driverId);
+            index.remove(driverId);
+            return;
+        }
+
+        availableDriverHubs.put(driverId, hubId);
+        placeDriver(driverId, hubId);
+    }
+
+    private void applyHubChange(Long hubId, double[] location) {
+        if (location != null) {
+            hubLocations.put(hubId, location);
+        } else {
+            hubLocations.remove(hubId);
+        }
+
+        availableDriverHubs.forEach((driverId, driverHubId) -> {
+            if (hubId.equals(driverHubId)) {
+                placeDriver(driverId, hubId);
+            }
+        });
+    }
+
+    private void placeDriver(Long driverId, Long hubId) {
+        double[] location = hubId != null ? hubLocations.get(hubId) : null;
+        if (location != null) {
+            unlocatedDrivers.remove(driverId);
+            index.put(driverId, location[0], location[1]);
+        } else {
+            index.remove(driverId);
+            unlocatedDrivers.add(driverId);
+        }
+    }
+}
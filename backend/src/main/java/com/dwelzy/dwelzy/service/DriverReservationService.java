@@ -0,0 +1,40 @@
+package com.dwelzy.dwelzy.service;
+
+import com.dwelzy.dwelzy.entity.Driver;
+import com.dwelzy.dwelzy.repository.DriverRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Claims drivers for assignments with a compare-and-set on the driver row, so concurrent
+ * assignments (manual calls, the dispatcher and sweeps on other nodes) never double-book a driver.
+ * A successful claim keeps the row locked until the surrounding assignment transaction ends.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class DriverReservationService {
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private SurgePricingService surgePricingService;
+
+    /**
+     * Move the driver from AVAILABLE to BUSY, returns false if another assignment got there first
+     */
+    public boolean tryReserve(Driver driver) {
+        if (driverRepository.reserveIfAvailable(driver.getId()) == 0) {
+            return false;
+        }
+        // Mirror the claim on the managed entity so the flush bumps the version as usual
+        boolean wasAvailable = SurgePricingService.isAvailable(driver);
+        driver.setStatus(Driver.DriverStatus.BUSY);
+
+        Long hubId = driver.getHub() != null ? driver.getHub().getId() : null;
+        surgePricingService.onDriverChanged(hubId, wasAvailable, hubId, false);
+        return true;
+    }
+}
@@ -0,0 +1,173 @@
+package com.dwelzy.dwelzy.service;
+
+import com.dwelzy.dwelzy.entity.Booking;
+import com.dwelzy.dwelzy.util.GeoMath;
+
+import java.util.Arrays;
+
+/**
+ * Immutable structure-of-arrays view of the driver attributes used for assignment scoring.
+ * Driver i is described by the i-th element of every array; rows are sorted by driver id.
+ * The scoring loops only read primitive arrays, so they do not allocate or touch JPA proxies.
+ */
+public final class DriverSnapshot {
+
+    public static final int AVAILABLE = 1;
+    public static final int VERIFIED = 1 << 1;
+    public static final int HAS_LOCATION = 1 << 2;
+
+    public static final long NO_HUB = -1;
+
+    private final long[] driverIds;
+    // Rating and experience factors do not depend on the booking, so they are summed up front
+    private final double[] staticScores;
+    private final long[] hubIds;
+    private final double[] hubLatitudes;
+    private final double[] hubLongitudes;
+    private final double[] hubLatitudeCosines;
+    private final int[] flags;
+
+    DriverSnapshot(long[] driverIds, double[] staticScores, long[] hubIds, double[] hubLatitudes,
+                   double[] hubLongitudes, double[] hubLatitudeCosines, int[] flags) {
+        this.driverIds = driverIds;
+        this.staticScores = staticScores;
+        this.hubIds = hubIds;
+        this.hubLatitudes = hubLatitudes;
+        this.hubLongitudes = hubLongitudes;
+        this.hubLatitudeCosines = hubLatitudeCosines;
+        this.flags = flags;
+    }
+
+    static DriverSnapshot empty() {
+        return new DriverSnapshot(new long[0], new double[0], new long[0], new double[0],
+                                  new double[0], new double[0], new int[0]);
+    }
+
+    public int size() {
+        return driverIds.length;
+    }
+
+    /**
+     * Row of the driver in this snapshot, or -1 when the driver is not part of it
+     */
+    public int indexOf(long driverId) {
+        int index = Arrays.binarySearch(driverIds, driverId);
+        return index >= 0 ? index : -1;
+    }
+
+    public long driverId(int index) {
+        return driverIds[index];
+    }
+
+    public boolean hasFlags(int index, int mask) {
+        return (flags[index] & mask) == mask;
+    }
+
+    /**
+     * Score of one driver for the target, same result as DriverAssignmentService's entity-based scoring
+     */
+    public double score(int index, Target target) {
+        double score = staticScores[index];
+
+        // Factor 3: Proximity to pickup location (weight: 40%)
+        double proximity = 0.5;
+        if (target.hasLocation && (flags[index] & HAS_LOCATION) != 0) {
+            double distance = GeoMath.haversineKm(hubLatitudes[index], hubLongitudes[index], hubLatitudeCosines[index],
+                                                  target.latitude, target.longitude, target.latitudeCosine);
+            proximity = proximityScore(distance);
+        }
+        score += proximity * 0.4;
+
+        // Factor 4: Hub compatibility (weight: 10%)
+        long hubId = hubIds[index];
+        double hubScore;
+        if (hubId == NO_HUB) {
+            hubScore = 0.5;
+        } else if (hubId == target.pickupHubId) {
+            hubScore = 1.0;
+        } else if (hubId == target.deliveryHubId) {
+            hubScore = 0.8;
+        } else {
+            hubScore = 0.5;
+        }
+        score += hubScore * 0.1;
+
+        return score;
+    }
+
+    /**
+     * Score every driver in the snapshot for the target
+     */
+    public void scoreAll(Target target, double[] scores) {
+        for (int i = 0; i < driverIds.length; i++) {
+            scores[i] = score(i, target);
+        }
+    }
+
+    /**
+     * Score the drivers at the given rows for the target
+     */
+    public void score(int[] indexes, Target target, double[] scores) {
+        for (int i = 0; i < indexes.length; i++) {
+            scores[i] = score(indexes[i], target);
+        }
+    }
+
+    // Factor 1: Driver rating (0-5 scale, weight: 30%)
+    static double ratingScore(Double rating) {
+        if (rating != null) {
+            return (rating / 5.0) * 0.3;
+        }
+        return 0.15; // Default score for new drivers
+    }
+
+    // Factor 2: Experience (total deliveries, weight: 20%)
+    static double experienceScore(Integer totalDeliveries) {
+        int deliveries = totalDeliveries != null ? totalDeliveries : 0;
+        double experienceScore = Math.min(deliveries / 100.0, 1.0); // Max score at 100 deliveries
+        return experienceScore * 0.2;
+    }
+
+    // Score decreases with distance (max score for distance <= 5km, min score for distance >= 50km)
+    static double proximityScore(double distanceKm) {
+        if (distanceKm <= 5) {
+            return 1.0;
+        } else if (distanceKm >= 50) {
+            return 0.1;
+        } else {
+            return 1.0 - ((distanceKm - 5) / 45) * 0.9;
+        }
+    }
+
+    /**
+     * Booking attributes used by the scoring kernel, converted once per booking
+     */
+    public static final class Target {
+        private final boolean hasLocation;
+        private final double latitude;
+        private final double longitude;
+        private final double latitudeCosine;
+        private final long pickupHubId;
+        private final long deliveryHubId;
+
+        private Target(boolean hasLocation, double latitude, double longitude, long pickupHubId, long deliveryHubId) {
+            this.hasLocation = hasLocation;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.latitudeCosine = Math.cos(latitude);
+            this.pickupHubId = pickupHubId;
+            this.deliveryHubId = deliveryHubId;
+        }
+
+        public static Target of(Booking booking) {
+            boolean hasLocation = booking.getPickupLatitude() != null && booking.getPickupLongitude() != null;
+            return new Target(
+                hasLocation,
+                hasLocation ? Math.toRadians(booking.getPickupLatitude().doubleValue()) : 0,
+                hasLocation ? Math.toRadians(booking.getPickupLongitude().doubleValue()) : 0,
+                booking.getPickupHub() != null ? booking.getPickupHub().getId() : NO_HUB,
+                booking.getDeliveryHub() != null ? booking.getDeliveryHub().getId() : NO_HUB
+            );
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.dwelzy.dwelzy.service;
+
+import com.dwelzy.dwelzy.entity.Driver;
+import com.dwelzy.dwelzy.repository.DriverRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Periodically rebuilds the DriverSnapshot used by the assignment scoring loops.
+ * Readers always see a complete snapshot, a refresh swaps in a new one atomically.
+ */
+@Service
+public class DriverSnapshotService {
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    private volatile DriverSnapshot snapshot = DriverSnapshot.empty();
+
+    public DriverSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Scheduled(fixedRateString = "${dwelzy.app.driverSnapshotRefreshMs:30000}")
+    @Transactional(readOnly = true)
+    public void refresh() {
+        snapshot = build(driverRepository.findScoringAttributes());
+    }
+
+    /**
+     * Build a snapshot from DriverRepository.findScoringAttributes rows
+     */
+    static DriverSnapshot build(List<Object[]> rows) {
+        rows.sort(Comparator.comparingLong(row -> (Long) row[0]));
+
+        int size = rows.size();
+        long[] driverIds = new long[size];
+        double[] staticScores = new double[size];
+        long[] hubIds = new long[size];
+        double[] hubLatitudes = new double[size];
+        double[] hubLongitudes = new double[size];
+        double[] hubLatitudeCosines = new double[size];
+        int[] flags = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            Object[] row = rows.get(i);
+            driverIds[i] = (Long) row[0];
+            staticScores[i] = DriverSnapshot.ratingScore((Double) row[1]) + DriverSnapshot.experienceScore((Integer) row[2]);
+
+            int flag = 0;
+            if (row[3] == Driver.DriverStatus.AVAILABLE) {
+                flag |= DriverSnapshot.AVAILABLE;
+            }
+            if (Boolean.TRUE.equals(row[4])) {
+                flag |= DriverSnapshot.VERIFIED;
+            }
+
+            hubIds[i] = row[5] != null ? (Long) row[5] : DriverSnapshot.NO_HUB;
+            if (row[5] != null && row[6] != null && row[7] != null) {
+                hubLatitudes[i] = Math.toRadians(((BigDecimal) row[6]).doubleValue());
+                hubLongitudes[i] = Math.toRadians(((BigDecimal) row[7]).doubleValue());
+                hubLatitudeCosines[i] = Math.cos(hubLatitudes[i]);
+                flag |= DriverSnapshot.HAS_LOCATION;
+            }
+            flags[i] = flag;
+        }
+
+        return new DriverSnapshot(driverIds, staticScores, hubIds, hubLatitudes,
+                                  hubLongitudes, hubLatitudeCosines, flags);
+    }
+}
@@ -0,0 +1,114 @@
+package com.dwelzy.dwelzy.service;
+
+import com.dwelzy.dwelzy.entity.Hub;
+import com.dwelzy.dwelzy.repository.HubRepository;
+import com.dwelzy.dwelzy.util.GeoGridIndex;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory spatial index of active hubs, replacing the trigonometric full-table scans in HubRepository.
+ * Kept current from hub changes, with a periodic full rebuild as a safety net.
+ */
+@Service
+public class HubLocatorService {
+
+    @Autowired
+    private HubRepository hubRepository;
+
+    @Value("${dwelzy.app.hubIndexCellDegrees:0.1}")
+    private double cellDegrees;
+
+    private GeoGridIndex<Long> index;
+
+    // Changes that arrive while a rebuild is loading, replayed on top of the loaded state
+    private final List<Runnable> changesDuringRebuild = new ArrayList<>();
+    private boolean rebuilding;
+    private volatile boolean ready;
+
+    @PostConstruct
+    void init() {
+        index = new GeoGridIndex<>(cellDegrees);
+    }
+
+    /**
+     * Reload all active hubs from the database
+     */
+    @Scheduled(fixedRateString = "${dwelzy.app.hubIndexRebuildMs:300000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        synchronized (this) {
+            rebuilding = true;
+            changesDuringRebuild.clear();
+        }
+
+        Map<Long, double[]> locations = new HashMap<>();
+        for (Hub hub : hubRepository.findByIsActiveTrue()) {
+            if (hub.getLatitude() != null && hub.getLongitude() != null) {
+                locations.put(hub.getId(), new double[]{hub.getLatitude().doubleValue(), hub.getLongitude().doubleValue()});
+            }
+        }
+
+        synchronized (this) {
+            index.replaceAll(locations);
+            changesDuringRebuild.forEach(Runnable::run);
+            changesDuringRebuild.clear();
+            rebuilding = false;
+            ready = true;
+        }
+    }
+
+    /**
+     * Apply a committed hub change, location is null when the hub has no coordinates
+     */
+    public synchronized void onHubChanged(Long hubId, double[] location, boolean active) {
+        if (rebuilding) {
+            changesDuringRebuild.add(() -> applyHubChange(hubId, location, active));
+        }
+        applyHubChange(hubId, location, active);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Id of the active hub closest to the location
+     */
+    public Optional<Long> findNearestHub(double latitude, double longitude) {
+        List<Long> nearest = index.nearest(latitude, longitude, 1);
+        return nearest.isEmpty() ? Optional.empty() : Optional.of(nearest.get(0));
+    }
+
+    /**
+     * Ids of up to limit active hubs closest to the location, nearest first
+     */
+    public List<Long> findNearestHubs(double latitude, double longitude, int limit) {
+        return index.nearest(latitude, longitude, limit);
+    }
+
+    /**
+     * Ids of the active hubs within the radius of the location, nearest first
+     */
+    public List<Long> findHubsWithinRadius(double latitude, double longitude, double radiusKm) {
+        return index.withinRadius(latitude, longitude, radiusKm);
+    }
+
+    private void applyHubChange(Long hubId, double[] location, boolean active) {
+        if (active && location != null) {
+            index.put(hubId, location[0], location[1]);
+        } else {
+            index.remove(hubId);
+        }
+    }
+}
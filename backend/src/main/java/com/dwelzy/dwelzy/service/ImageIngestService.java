@@ -0,0 +1,141 @@
+package com.dwelzy.dwelzy.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Streams uploaded images to temporary files, hashing and measuring them on the way, so an image
+ * never sits in the heap whole. Memory per upload is one copy buffer.
+ */
+@Service
+public class ImageIngestService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Value("${dwelzy.app.imageMaxBytes:10485760}")
+    private long maxBytes;
+
+    // Empty for the system temp directory
+    @Value("${dwelzy.app.imageTempDir:}")
+    private String tempDir;
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Copy the stream to a temporary file, failing once it exceeds the maximum image size.
+     * The caller closes the returned image to delete the file.
+     */
+    public ItemImage ingest(InputStream input, String contentType) throws IOException {
+        Path path = tempDir.isEmpty()
+                ? Files.createTempFile("item-image-", ".tmp")
+                : Files.createTempFile(Files.createDirectories(Paths.get(tempDir)), "item-image-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long size = 0;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                int read;
+                while ((read = input.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxBytes) {
+                        throw new RuntimeException("File size must be less than " + maxBytes / (1024 * 1024) + "MB");
+                    }
+                    digest.update(buffer, 0, read);
+                    ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                    while (chunk.hasRemaining()) {
+                        channel.write(chunk);
+                    }
+                }
+            }
+            return new ItemImage(path, size, HexFormat.of().formatHex(digest.digest()), contentType);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        }
+    }
+
+    /**
+     * Decode a base64 image straight into a temporary file without materializing the decoded bytes.
+     * Malformed input fails with an IllegalArgumentException.
+     */
+    public ItemImage ingestBase64(String base64, String contentType) throws IOException {
+        return ingest(new DecodeErrors(Base64.getDecoder().wrap(new AsciiInput(base64))), contentType);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Reads the characters of a base64 string as ASCII bytes, avoiding the getBytes() copy
+     */
+    private static final class AsciiInput extends InputStream {
+        private final String text;
+        private int position;
+
+        AsciiInput(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int read() {
+            return position < text.length() ? asciiAt(position++) : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (position >= text.length()) {
+                return length == 0 ? 0 : -1;
+            }
+            int count = Math.min(length, text.length() - position);
+            for (int i = 0; i < count; i++) {
+                buffer[offset + i] = (byte) asciiAt(position++);
+            }
+            return count;
+        }
+
+        // Anything outside ASCII becomes a character the decoder rejects instead of aliasing a valid one
+        private int asciiAt(int index) {
+            char c = text.charAt(index);
+            return c < 0x80 ? c : '?';
+        }
+    }
+
+    /**
+     * The base64 decoding stream reports bad characters as IOExceptions; surface them as invalid input
+     */
+    private static final class DecodeErrors extends FilterInputStream {
+        DecodeErrors(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            try {
+                return in.read(buffer, offset, length);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Invalid base64 image format", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.dwelzy.dwelzy.service;
+
+import com.dwelzy.dwelzy.util.ExifOrientation;
+import com.dwelzy.dwelzy.util.PerceptualHash;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decodes each uploaded image once and re-encodes it as a storage rendition and a smaller analysis
+ * rendition, upright and without metadata. Decoding is subsampled to the storage size, so a large
+ * photo never exists at full resolution in memory, and a bounded pool caps how many decode at once.
+ */
+@Service
+public class ImageNormalizationService {
+
+    @Autowired
+    private ImageIngestService imageIngestService;
+
+    @Value("${dwelzy.app.imageStorageMaxPx:1600}")
+    private int storageMaxPx;
+
+    @Value("${dwelzy.app.imageAnalysisMaxPx:512}")
+    private int analysisMaxPx;
+
+    @Value("${dwelzy.app.imageJpegQuality:0.85}")
+    private float jpegQuality;
+
+    @Value("${dwelzy.app.imageNormalizeThreads:0}")
+    private int threads;
+
+    @Value("${dwelzy.app.imageNormalizeQueueCapacity:100}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-normalize-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Produce the renditions of an image on the worker pool. Files that no installed decoder
+     * understands pass through unchanged as both renditions.
+     */
+    public CompletableFuture<Renditions> normalize(ItemImage original) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return render(original);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new RuntimeException("Image processing is busy, try again later"));
+        }
+    }
+
+    private Renditions render(ItemImage original) throws IOException {
+        BufferedImage decoded = decode(original);
+        if (decoded == null) {
+            return new Renditions(original, original, false);
+        }
+        decoded = ExifOrientation.apply(decoded, ExifOrientation.read(original.getPath()));
+
+        BufferedImage storage = scaleToFit(decoded, storageMaxPx);
+        BufferedImage analysis = scaleToFit(storage, analysisMaxPx);
+        // Hashed here while the pixels are in memory, so near-duplicate matching needs no second decode
+        long perceptualHash = PerceptualHash.dHash(analysis);
+        original.setPerceptualHash(perceptualHash);
+
+        ItemImage storageImage = encode(storage);
+        storageImage.setSourceSize(original.getSize());
+        try {
+            ItemImage analysisImage = encode(analysis);
+            analysisImage.setSourceSize(original.getSize());
+            analysisImage.setPerceptualHash(perceptualHash);
+            return new Renditions(analysisImage, storageImage, true);
+        } catch (IOException | RuntimeException e) {
+            storageImage.close();
+            throw e;
+        }
+    }
+
+    // Decodes subsampled so the result is still at least the storage size, or null if not an image
+    private BufferedImage decode(ItemImage image) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(image.getPath().toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, longSide / storageMaxPx);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } catch (IOException | RuntimeException e) {
+                // Corrupt or unsupported variant of a known format
+                return null;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves repeatedly before the last bilinear step, which alone would skip most source pixels
+    private static BufferedImage scaleToFit(BufferedImage image, int maxPx) {
+        boolean alpha = image.getColorModel().hasAlpha();
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double scale = Math.min(1.0, (double) maxPx / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage current = image;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, type);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (width > targetWidth || height > targetHeight);
+        return current;
+    }
+
+    // Written from pixels only, so no EXIF, GPS or other metadata survives
+    private ItemImage encode(BufferedImage image) throws IOException {
+        boolean alpha = image.getColorModel().hasAlpha();
+        String format = alpha ? "png" : "jpeg";
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (!alpha) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(jpegQuality);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return imageIngestService.ingest(new ByteArrayInputStream(bytes.toByteArray()), "image/" + format);
+    }
+
+    /**
+     * The analysis and storage renditions of one upload. Closing deletes the renditions made here,
+     * never the original.
+     */
+    public record Renditions(ItemImage analysis, ItemImage storage, boolean converted) implements AutoCloseable {
+        @Override
+        public void close() {
+            if (converted) {
+                analysis.close();
+                storage.close();
+            }
+        }
+    }
+}
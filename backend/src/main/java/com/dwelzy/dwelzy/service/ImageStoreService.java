@@ -0,0 +1,112 @@
+package com.dwelzy.dwelzy.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed image store on local disk. Each image is written once under its SHA-256,
+ * sharded as {@code ab/cd/abcd...}, so identical uploads share one file and a stored file never changes.
+ */
+@Service
+public class ImageStoreService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageStoreService.class);
+
+    public static final String URL_PREFIX = "/api/v1/images/";
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    @Value("${dwelzy.app.imageStoreDir:${java.io.tmpdir}/dwelzy/images}")
+    private String storeDir;
+
+    /**
+     * Store an ingested image and return its hash; storing content that is already present is a no-op
+     */
+    public String store(ItemImage image) throws IOException {
+        String hash = image.getSha256();
+        Path target = pathOf(hash);
+        if (Files.exists(target)) {
+            return hash;
+        }
+        Files.createDirectories(target.getParent());
+        try {
+            // A hard link publishes the ingested file without copying it and leaves the caller's copy readable
+            Files.createLink(target, image.getPath());
+        } catch (FileAlreadyExistsException e) {
+            return hash;
+        } catch (IOException | UnsupportedOperationException e) {
+            // Temp dir on another file system: copy beside the target, then publish it atomically
+            Path partial = Files.createTempFile(target.getParent(), hash, ".partial");
+            try {
+                Files.copy(image.getPath(), partial, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException raced) {
+                return hash;
+            } finally {
+                Files.deleteIfExists(partial);
+            }
+        }
+        if (!target.toFile().setReadOnly()) {
+            logger.debug("Could not mark stored image {} read-only", hash);
+        }
+        return hash;
+    }
+
+    public String urlOf(String hash) {
+        return URL_PREFIX + hash;
+    }
+
+    /**
+     * Location of a stored image, empty for malformed or unknown hashes
+     */
+    public Optional<Path> find(String hash) {
+        if (hash == null || !HASH.matcher(hash).matches()) {
+            return Optional.empty();
+        }
+        Path path = pathOf(hash);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    /**
+     * Media type sniffed from the leading bytes, since the store keeps content only
+     */
+    public String contentTypeOf(Path path) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(12);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (head.hasRemaining() && channel.read(head) > 0) {
+                // Fill the header
+            }
+        }
+        byte[] b = head.array();
+        int n = head.position();
+        if (n >= 8 && (b[0] & 0xFF) == 0x89 && b[1] == 'P' && b[2] == 'N' && b[3] == 'G') {
+            return "image/png";
+        } else if (n >= 3 && (b[0] & 0xFF) == 0xFF && (b[1] & 0xFF) == 0xD8 && (b[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        } else if (n >= 4 && b[0] == 'G' && b[1] == 'I' && b[2] == 'F' && b[3] == '8') {
+            return "image/gif";
+        } else if (n >= 12 && b[0] == 'R' && b[1] == 'I' && b[2] == 'F' && b[3] == 'F'
+                && b[8] == 'W' && b[9] == 'E' && b[10] == 'B' && b[11] == 'P') {
+            return "image/webp";
+        }
+        return "application/octet-stream";
+    }
+
+    private Path pathOf(String hash) {
+        return Paths.get(storeDir, hash.substring(0, 2), hash.substring(2, 4), hash);
+    }
+}
@@ -0,0 +1,208 @@
+package com.dwelzy.dwelzy.service;
+
+import com.dwelzy.dwelzy.util.LruCache;
+import com.dwelzy.dwelzy.util.PerceptualHash;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Results of image analysis keyed by image content, so a re-uploaded photo is not analyzed again.
+ * Exact copies match on SHA-256; re-encoded or resized copies match on a perceptual hash within a
+ * few bits. Entries live in a bounded LRU, optionally backed by JSON files that survive restarts.
+ */
+@Service
+public class ItemAnalysisCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemAnalysisCacheService.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${dwelzy.app.analysisCacheMaxSize:10000}")
+    private int maxSize;
+
+    @Value("${dwelzy.app.analysisCacheTtlMs:86400000}")
+    private long ttlMs;
+
+    // Largest perceptual hash distance treated as the same photo, negative to match exact copies only
+    @Value("${dwelzy.app.analysisCacheMaxDistance:5}")
+    private int maxDistance;
+
+    // Empty for memory only
+    @Value("${dwelzy.app.analysisCacheDir:}")
+    private String cacheDir;
+
+    private LruCache<String, CachedAnalysis> memory;
+
+    // Perceptual hash of each cached image by SHA-256, scanned for near duplicates
+    private LinkedHashMap<String, Long> similarIndex;
+
+    private final LongAdder similarHits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        memory = new LruCache<>(maxSize, ttlMs);
+        similarIndex = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Cached analysis of an image with the same bytes
+     */
+    public Optional<CachedAnalysis> findExact(ItemImage image) {
+        return Optional.ofNullable(lookup(image.getSha256()));
+    }
+
+    /**
+     * Cached analysis of a near-identical image, by the perceptual hash
+     */
+    public Optional<CachedAnalysis> findSimilar(ItemImage image) throws IOException {
+        if (maxDistance < 0 || maxSize == 0) {
+            return Optional.empty();
+        }
+
+        OptionalLong perceptualHash = image.getPerceptualHash();
+        if (perceptualHash.isEmpty()) {
+            return Optional.empty();
+        }
+        String similar = findSimilar(perceptualHash.getAsLong());
+        if (similar == null) {
+            return Optional.empty();
+        }
+        CachedAnalysis analysis = lookup(similar);
+        if (analysis == null) {
+            synchronized (similarIndex) {
+                similarIndex.remove(similar);
+            }
+            return Optional.empty();
+        }
+        similarHits.increment();
+        return Optional.of(analysis);
+    }
+
+    public void put(ItemImage image, CachedAnalysis analysis) throws IOException {
+        String hash = image.getSha256();
+        memory.put(hash, analysis);
+        OptionalLong perceptualHash = maxDistance >= 0 ? image.getPerceptualHash() : OptionalLong.empty();
+        if (perceptualHash.isPresent() && maxSize > 0) {
+            synchronized (similarIndex) {
+                similarIndex.put(hash, perceptualHash.getAsLong());
+            }
+        }
+        writeToDisk(hash, analysis);
+    }
+
+    public CacheStats getStats() {
+        int indexed;
+        synchronized (similarIndex) {
+            indexed = similarIndex.size();
+        }
+        return new CacheStats(memory.getStats(), indexed, similarHits.sum(), diskHits.sum());
+    }
+
+    private CachedAnalysis lookup(String hash) {
+        CachedAnalysis analysis = memory.getIfPresent(hash);
+        if (analysis == null) {
+            analysis = readFromDisk(hash);
+            if (analysis != null) {
+                diskHits.increment();
+                memory.put(hash, analysis);
+            }
+        }
+        return analysis;
+    }
+
+    // Closest indexed image within the distance limit; a linear scan of longs is cheap at cache sizes
+    private String findSimilar(long perceptualHash) {
+        String best = null;
+        int bestDistance = maxDistance + 1;
+        synchronized (similarIndex) {
+            for (Map.Entry<String, Long> entry : similarIndex.entrySet()) {
+                int distance = PerceptualHash.distance(perceptualHash, entry.getValue());
+                if (distance < bestDistance) {
+                    best = entry.getKey();
+                    bestDistance = distance;
+                }
+            }
+        }
+        return best;
+    }
+
+    private CachedAnalysis readFromDisk(String hash) {
+        if (cacheDir.isEmpty()) {
+            return null;
+        }
+        Path path = diskPath(hash);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(path.toFile(), CachedAnalysis.class);
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable cached analysis {}", path, e);
+            return null;
+        }
+    }
+
+    private void writeToDisk(String hash, CachedAnalysis analysis) {
+        if (cacheDir.isEmpty()) {
+            return;
+        }
+        // Rewritten on every put, so an entry updated with its stored image replaces the older file
+        Path path = diskPath(hash);
+        try {
+            Files.createDirectories(path.getParent());
+            Path partial = Files.createTempFile(path.getParent(), hash, ".partial");
+            try {
+                objectMapper.writeValue(partial.toFile(), analysis);
+                Files.move(partial, path, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Written concurrently by another request
+            } finally {
+                Files.deleteIfExists(partial);
+            }
+        } catch (IOException e) {
+            // The memory tier still has it
+            logger.warn("Could not write cached analysis {}", path, e);
+        }
+    }
+
+    private Path diskPath(String hash) {
+        return Paths.get(cacheDir, hash.substring(0, 2), hash + ".json");
+    }
+
+    /**
+     * What an analysis learned from the image itself, and the stored rendition of it so a repeat
+     * upload need not be normalized again; null imageHash when not known. Request-specific
+     * estimates are not cached.
+     */
+    public record CachedAnalysis(String analysisId, String itemType, double confidence, String imageHash) {
+        public CachedAnalysis withImageHash(String imageHash) {
+            return new CachedAnalysis(analysisId, itemType, confidence, imageHash);
+        }
+    }
+
+    public record CacheStats(LruCache.Stats memory, int similarIndexSize, long similarHits, long diskHits) {}
+}
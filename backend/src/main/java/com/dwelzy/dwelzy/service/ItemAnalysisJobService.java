@@ -0,0 +1,195 @@
+package com.dwelzy.dwelzy.service;
+
+import com.dwelzy.dwelzy.dto.ItemAnalysisJob;
+import com.dwelzy.dwelzy.dto.ItemAnalysisRequest;
+import com.dwelzy.dwelzy.dto.ItemAnalysisResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs item analyses off the request threads on a fixed pool fed by a bounded queue. A full queue
+ * rejects the submission with a retry hint instead of growing, so slow analyzers push back on clients.
+ */
+@Service
+public class ItemAnalysisJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemAnalysisJobService.class);
+
+    private static final int MAX_JOBS = 1000;
+
+    @Autowired
+    private ItemAnalysisService itemAnalysisService;
+
+    @Value("${dwelzy.app.analysisThreads:16}")
+    private int threads;
+
+    @Value("${dwelzy.app.analysisQueueCapacity:100}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    // Most recent jobs by id, oldest dropped first
+    private final Map<String, Job> jobs = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Job> eldest) {
+            return size() > MAX_JOBS;
+        }
+    });
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder processingNanos = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "item-analysis-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queue an analysis, taking ownership of the image, which is deleted once the job ends.
+     * Throws QueueFullException when the queue is at capacity.
+     */
+    public ItemAnalysisJob submit(ItemImage image, ItemAnalysisRequest request) {
+        Job job = new Job(UUID.randomUUID().toString());
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job, image, request));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            image.close();
+            rejected.increment();
+            throw new QueueFullException(retryAfterSeconds());
+        }
+        submitted.increment();
+        return job.toDto();
+    }
+
+    public Optional<ItemAnalysisJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(Job::toDto);
+    }
+
+    /**
+     * Completes with the finished job, for long polling; empty for unknown ids
+     */
+    public Optional<CompletableFuture<ItemAnalysisJob>> whenFinished(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(job -> job.done.thenApply(ignored -> job.toDto()));
+    }
+
+    public QueueStats getQueueStats() {
+        long finished = completed.sum() + failed.sum();
+        return new QueueStats(executor.getQueue().size(), queueCapacity, executor.getActiveCount(), threads,
+                submitted.sum(), completed.sum(), failed.sum(), rejected.sum(),
+                finished > 0 ? waitNanos.sum() / 1e6 / finished : 0,
+                finished > 0 ? processingNanos.sum() / 1e6 / finished : 0);
+    }
+
+    private void run(Job job, ItemImage image, ItemAnalysisRequest request) {
+        long started = System.nanoTime();
+        waitNanos.add(started - job.submittedNanos);
+        job.status = ItemAnalysisJob.Status.RUNNING;
+        job.startedAt = LocalDateTime.now();
+        try (image) {
+            job.result = itemAnalysisService.analyzeItem(image, request);
+            job.status = ItemAnalysisJob.Status.COMPLETED;
+            completed.increment();
+        } catch (Exception e) {
+            logger.warn("Item analysis {} failed", job.id, e);
+            job.error = e.getMessage();
+            job.status = ItemAnalysisJob.Status.FAILED;
+            failed.increment();
+        } finally {
+            processingNanos.add(System.nanoTime() - started);
+            job.finishedAt = LocalDateTime.now();
+            job.done.complete(null);
+        }
+    }
+
+    // Time for the queue ahead of a new job to drain at the observed processing rate
+    private long retryAfterSeconds() {
+        long finished = completed.sum() + failed.sum();
+        double averageMs = finished > 0 ? processingNanos.sum() / 1e6 / finished : 1000;
+        double drainMs = (executor.getQueue().size() + 1) * averageMs / threads;
+        return Math.max(1, (long) Math.ceil(drainMs / 1000));
+    }
+
+    public record QueueStats(int queueDepth, int queueCapacity, int activeThreads, int threads,
+                             long submitted, long completed, long failed, long rejected,
+                             double averageWaitMs, double averageProcessingMs) {}
+
+    /**
+     * The analysis queue is full; the client should retry after the given number of seconds
+     */
+    public static class QueueFullException extends RuntimeException {
+        private final long retryAfterSeconds;
+
+        public QueueFullException(long retryAfterSeconds) {
+            super("Analysis queue is full, retry in " + retryAfterSeconds + "s");
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    private static final class Job {
+        private final String id;
+        private final long submittedNanos = System.nanoTime();
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private volatile ItemAnalysisJob.Status status = ItemAnalysisJob.Status.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile ItemAnalysisResponse result;
+        private volatile String error;
+
+        private Job(String id) {
+            this.id = id;
+        }
+
+        private ItemAnalysisJob toDto() {
+            ItemAnalysisJob dto = new ItemAnalysisJob();
+            dto.setId(id);
+            dto.setStatus(status);
+            dto.setSubmittedAt(submittedAt);
+            dto.setStartedAt(startedAt);
+            dto.setFinishedAt(finishedAt);
+            dto.setResult(result);
+            dto.setError(error);
+            return dto;
+        }
+    }
+}
@@ -5,10 +5,15 @@ import com.dwelzy.dwelzy.dto.ItemAnalysisResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 public class ItemAnalysisService {
@@ -16,18 +21,105 @@ public class ItemAnalysisService {
     @Autowired
     private PricingService pricingService;
 
-    public ItemAnalysisResponse analyzeItem(ItemAnalysisRequest request) {
-        // For now, this is a mock implementation
-        // In a real-world scenario, this would integrate with AI/ML services
-        // like Google Vision API, AWS Rekognition, or custom ML models
-        
+    @Autowired
+    private ImageStoreService imageStoreService;
+
+    @Autowired
+    private ItemAnalysisCacheService itemAnalysisCacheService;
+
+    @Autowired
+    private ItemAnalyzerDispatchService itemAnalyzerDispatchService;
+
+    @Autowired
+    private ImageNormalizationService imageNormalizationService;
+
+    /**
+     * Analyze an ingested image; the request carries only the caller's description and size estimates.
+     * Waits for the analyzer, prefer analyzeItemAsync on request threads.
+     */
+    public ItemAnalysisResponse analyzeItem(ItemImage image, ItemAnalysisRequest request) {
+        try {
+            return analyzeItemAsync(image, request).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Analyze an ingested image without waiting on the analyzer. The image must stay open until
+     * the returned future completes.
+     */
+    public CompletableFuture<ItemAnalysisResponse> analyzeItemAsync(ItemImage image, ItemAnalysisRequest request) {
+        // A repeat upload of the same bytes is answered from the cache, without decoding it again
+        ItemAnalysisCacheService.CachedAnalysis exact = itemAnalysisCacheService.findExact(image).orElse(null);
+        if (exact != null && exact.imageHash() != null && imageStoreService.find(exact.imageHash()).isPresent()) {
+            ItemAnalysisResponse response = new ItemAnalysisResponse();
+            response.setImageUrl(imageStoreService.urlOf(exact.imageHash()));
+            response.setCacheMatch("EXACT");
+            try {
+                return CompletableFuture.completedFuture(complete(response, exact, request));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        // Decode once into a downscaled storage copy and a small analysis copy
+        return imageNormalizationService.normalize(image).thenCompose(renditions -> {
+            CompletableFuture<ItemAnalysisResponse> analysis;
+            try {
+                analysis = analyzeRenditions(image, renditions, exact, request);
+            } catch (IOException | RuntimeException e) {
+                renditions.close();
+                return CompletableFuture.failedFuture(e);
+            }
+            return analysis.whenComplete((response, error) -> renditions.close());
+        });
+    }
+
+    private CompletableFuture<ItemAnalysisResponse> analyzeRenditions(ItemImage original,
+                                                                      ImageNormalizationService.Renditions renditions,
+                                                                      ItemAnalysisCacheService.CachedAnalysis exact,
+                                                                      ItemAnalysisRequest request) throws IOException {
         ItemAnalysisResponse response = new ItemAnalysisResponse();
-        
-        // Generate analysis ID
-        response.setAnalysisId(UUID.randomUUID().toString());
-        
-        // Mock analysis based on image (in real implementation, this would use AI)
-        String itemType = analyzeItemType(request.getImageBase64());
+
+        // Keep the image so the analysis can be reviewed later
+        String imageHash = imageStoreService.store(renditions.storage());
+        response.setImageUrl(imageStoreService.urlOf(imageHash));
+
+        // Cached without its stored image, or the stored image is gone; remember the new one
+        if (exact != null) {
+            itemAnalysisCacheService.put(original, exact.withImageHash(imageHash));
+            response.setCacheMatch("EXACT");
+            return CompletableFuture.completedFuture(complete(response, exact, request));
+        }
+
+        // Reuse the analysis of a near-identical photo, keeping its id
+        Optional<ItemAnalysisCacheService.CachedAnalysis> similar = itemAnalysisCacheService.findSimilar(original);
+        if (similar.isPresent()) {
+            response.setCacheMatch("SIMILAR");
+            return CompletableFuture.completedFuture(complete(response, similar.get(), request));
+        }
+
+        // New image, classified by the analyzer in a batch with other concurrent requests
+        return itemAnalyzerDispatchService.classify(renditions.analysis()).thenApply(classification -> {
+            ItemAnalysisCacheService.CachedAnalysis analysis = new ItemAnalysisCacheService.CachedAnalysis(
+                    UUID.randomUUID().toString(), classification.itemType(), classification.confidence(), imageHash);
+            try {
+                itemAnalysisCacheService.put(original, analysis);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return complete(response, analysis, request);
+        });
+    }
+
+    private ItemAnalysisResponse complete(ItemAnalysisResponse response, ItemAnalysisCacheService.CachedAnalysis analysis,
+                                          ItemAnalysisRequest request) {
+        response.setAnalysisId(analysis.analysisId());
+        String itemType = analysis.itemType();
         response.setItemType(itemType);
         response.setItemCategory(getItemCategory(itemType));
         response.setDescription(generateDescription(itemType));
@@ -56,30 +148,11 @@ public class ItemAnalysisService {
             BigDecimal.valueOf(10.0) // Default 10km distance
         ));
         
-        // Set confidence score (mock)
-        response.setConfidence(0.85);
+        response.setConfidence(analysis.confidence());
         
         return response;
     }
 
-    private String analyzeItemType(String imageBase64) {
-        // Mock implementation - in reality, this would use AI/ML
-        // For demo purposes, we'll return different types based on image size
-        int imageSize = imageBase64.length();
-        
-        if (imageSize < 1000) {
-            return "documents";
-        } else if (imageSize < 5000) {
-            return "electronics";
-        } else if (imageSize < 10000) {
-            return "fragile";
-        } else if (imageSize < 20000) {
-            return "food";
-        } else {
-            return "general";
-        }
-    }
-
     private String getItemCategory(String itemType) {
         return switch (itemType.toLowerCase()) {
             case "electronics" -> "Technology";
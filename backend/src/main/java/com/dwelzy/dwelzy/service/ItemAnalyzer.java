@@ -0,0 +1,24 @@
+package com.dwelzy.dwelzy.service;
+
+import java.util.List;
+
+/**
+ * Image classification model behind item analysis. Implementations receive micro-batches
+ * assembled by ItemAnalyzerDispatchService and must be safe to call from several threads.
+ */
+public interface ItemAnalyzer {
+
+    /**
+     * Classify the images, returning one result per image in the same order
+     */
+    List<Classification> analyze(List<ItemImage> images) throws Exception;
+
+    /**
+     * Largest batch the model accepts in one call
+     */
+    default int maxBatchSize() {
+        return 64;
+    }
+
+    record Classification(String itemType, double confidence) {}
+}
@@ -0,0 +1,188 @@
+package com.dwelzy.dwelzy.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Feeds the ItemAnalyzer in micro-batches. Callers get a future instead of blocking on inference;
+ * a dispatcher thread collects concurrent images into a batch bounded by size and wait time, and
+ * at most analyzerConcurrency batches run at once. While a batch runs, new images queue up and form
+ * the next, larger batch, so batches grow with load.
+ */
+@Service
+public class ItemAnalyzerDispatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemAnalyzerDispatchService.class);
+
+    @Autowired
+    private ItemAnalyzer itemAnalyzer;
+
+    @Value("${dwelzy.app.analyzerQueueCapacity:1000}")
+    private int queueCapacity;
+
+    @Value("${dwelzy.app.analyzerBatchSize:32}")
+    private int batchSize;
+
+    @Value("${dwelzy.app.analyzerBatchWindowMs:10}")
+    private long batchWindowMs;
+
+    @Value("${dwelzy.app.analyzerConcurrency:2}")
+    private int concurrency;
+
+    private BlockingQueue<Pending> pendingImages;
+    private Semaphore batchSlots;
+    private ExecutorService batchRunner;
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder images = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder inferenceNanos = new LongAdder();
+
+    @PostConstruct
+    void start() {
+        batchSize = Math.max(1, Math.min(batchSize, itemAnalyzer.maxBatchSize()));
+        pendingImages = new ArrayBlockingQueue<>(queueCapacity);
+        batchSlots = new Semaphore(concurrency);
+        AtomicInteger threadCount = new AtomicInteger();
+        batchRunner = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "item-analyzer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "item-analyzer-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        dispatcher.interrupt();
+        batchRunner.shutdownNow();
+    }
+
+    /**
+     * Queue an image for classification. The image must stay open until the future completes.
+     */
+    public CompletableFuture<ItemAnalyzer.Classification> classify(ItemImage image) {
+        Pending pending = new Pending(image);
+        if (!pendingImages.offer(pending)) {
+            pending.result.completeExceptionally(new RuntimeException("Item analyzer is overloaded, try again later"));
+        }
+        return pending.result;
+    }
+
+    public AnalyzerStats getStats() {
+        long batchCount = batches.sum();
+        return new AnalyzerStats(pendingImages.size(), batchSize, batchCount, images.sum(), failedBatches.sum(),
+                batchCount > 0 ? (double) images.sum() / batchCount : 0,
+                batchCount > 0 ? inferenceNanos.sum() / 1e6 / batchCount : 0);
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            List<Pending> batch = new ArrayList<>(batchSize);
+            try {
+                // Hold off collecting until a batch can run, so waiting images pile into the next batch
+                batchSlots.acquire();
+                batch.add(pendingImages.take());
+
+                // Give concurrent requests a short window to join the batch
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchWindowMs);
+                while (batch.size() < batchSize) {
+                    pendingImages.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 && batch.size() < batchSize
+                            ? pendingImages.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                batchRunner.execute(() -> {
+                    try {
+                        run(batch);
+                    } finally {
+                        batchSlots.release();
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(batch, new IllegalStateException("Item analyzer is shutting down"));
+                return;
+            } catch (RuntimeException e) {
+                batchSlots.release();
+                fail(batch, e);
+            }
+        }
+    }
+
+    private void run(List<Pending> batch) {
+        List<ItemImage> batchImages = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            batchImages.add(pending.image);
+        }
+
+        long started = System.nanoTime();
+        List<ItemAnalyzer.Classification> results;
+        try {
+            results = itemAnalyzer.analyze(batchImages);
+            if (results == null || results.size() != batch.size()) {
+                throw new IllegalStateException("Analyzer returned " + (results == null ? 0 : results.size())
+                        + " results for " + batch.size() + " images");
+            }
+        } catch (Exception e) {
+            logger.error("Item analysis batch of {} failed: {}", batch.size(), e.getMessage());
+            failedBatches.increment();
+            fail(batch, e);
+            return;
+        } finally {
+            inferenceNanos.add(System.nanoTime() - started);
+            batches.increment();
+            images.add(batch.size());
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result.complete(results.get(i));
+        }
+    }
+
+    private static void fail(List<Pending> batch, Exception e) {
+        for (Pending pending : batch) {
+            pending.result.completeExceptionally(e);
+        }
+    }
+
+    public record AnalyzerStats(int queueDepth, int maxBatchSize, long batches, long images, long failedBatches,
+                                double averageBatchSize, double averageInferenceMs) {}
+
+    private static final class Pending {
+        private final ItemImage image;
+        private final CompletableFuture<ItemAnalyzer.Classification> result = new CompletableFuture<>();
+
+        private Pending(ItemImage image) {
+            this.image = image;
+        }
+    }
+}
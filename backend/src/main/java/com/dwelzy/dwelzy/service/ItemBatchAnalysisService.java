@@ -0,0 +1,184 @@
+package com.dwelzy.dwelzy.service;
+
+import com.dwelzy.dwelzy.dto.ItemAnalysisRequest;
+import com.dwelzy.dwelzy.dto.ItemAnalysisResponse;
+import com.dwelzy.dwelzy.dto.ItemBatchAnalysisResult;
+import com.dwelzy.dwelzy.dto.ItemBatchSummary;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Analyzes the images of one multipart request in parallel and streams a result line per image as
+ * it finishes, then a pricing summary. At most analysisBatchConcurrency images of a request are in
+ * the pipeline at once, so one large batch cannot take over the shared analyzer.
+ */
+@Service
+public class ItemBatchAnalysisService {
+
+    // Same default as single item analysis when the caller does not know the route yet
+    private static final BigDecimal DEFAULT_DISTANCE_KM = BigDecimal.valueOf(10.0);
+
+    @Autowired
+    private ImageIngestService imageIngestService;
+
+    @Autowired
+    private ItemAnalysisService itemAnalysisService;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${dwelzy.app.analysisBatchMaxImages:50}")
+    private int maxImages;
+
+    @Value("${dwelzy.app.analysisBatchConcurrency:4}")
+    private int concurrency;
+
+    /**
+     * Validate the uploaded files and copy them off the request, before the response starts streaming
+     */
+    public Batch prepareBatch(List<MultipartFile> files) throws IOException {
+        if (files == null || files.isEmpty()) {
+            throw new RuntimeException("At least one image is required");
+        }
+        if (files.size() > maxImages) {
+            throw new RuntimeException("At most " + maxImages + " images can be analyzed in one batch");
+        }
+        for (MultipartFile file : files) {
+            String contentType = file.getContentType();
+            if (file.isEmpty() || contentType == null || !contentType.startsWith("image/")) {
+                throw new RuntimeException("File must be an image: " + file.getOriginalFilename());
+            }
+            if (file.getSize() > imageIngestService.getMaxBytes()) {
+                throw new RuntimeException("File size must be less than 10MB: " + file.getOriginalFilename());
+            }
+        }
+
+        Batch batch = new Batch(files.size());
+        try {
+            for (MultipartFile file : files) {
+                try (InputStream input = file.getInputStream()) {
+                    batch.add(file.getOriginalFilename(), imageIngestService.ingest(input, file.getContentType()));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            batch.close();
+            throw e;
+        }
+        return batch;
+    }
+
+    /**
+     * Analyze the batch and write one NDJSON line per image in completion order, then the summary.
+     * Closes the batch.
+     */
+    public void analyzeBatch(Batch batch, OutputStream output) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(output);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+
+        int count = batch.images.size();
+        ItemBatchAnalysisResult[] results = new ItemBatchAnalysisResult[count];
+        BlockingQueue<Integer> finished = new LinkedBlockingQueue<>();
+        ItemBatchSummary summary = new ItemBatchSummary();
+        summary.setItemCount(count);
+        BigDecimal itemizedPrice = BigDecimal.ZERO;
+
+        try (batch; generator) {
+            int started = 0;
+            while (started < Math.min(concurrency, count)) {
+                start(batch, started++, results, finished);
+            }
+            for (int done = 0; done < count; done++) {
+                int index = finished.take();
+                batch.images.get(index).close();
+                if (started < count) {
+                    start(batch, started++, results, finished);
+                }
+
+                ItemBatchAnalysisResult result = results[index];
+                ItemAnalysisResponse analysis = result.getAnalysis();
+                if (analysis != null) {
+                    summary.setAnalyzedCount(summary.getAnalyzedCount() + 1);
+                    summary.setTotalEstimatedWeight(summary.getTotalEstimatedWeight() + analysis.getEstimatedWeight());
+                    summary.setTotalEstimatedVolume(summary.getTotalEstimatedVolume() + analysis.getEstimatedVolume());
+                    if (analysis.getEstimatedPrice() != null) {
+                        itemizedPrice = itemizedPrice.add(analysis.getEstimatedPrice());
+                    }
+                } else {
+                    summary.setFailedCount(summary.getFailedCount() + 1);
+                }
+                generator.writeObject(result);
+                generator.writeRaw('\n');
+                generator.flush();
+            }
+
+            summary.setItemizedEstimatedPrice(itemizedPrice);
+            if (summary.getAnalyzedCount() > 0) {
+                // The whole load quoted as one shipment
+                summary.setCombinedEstimatedPrice(pricingService.getEstimatedPriceByVolume(
+                        summary.getTotalEstimatedWeight(), summary.getTotalEstimatedVolume(), null, DEFAULT_DISTANCE_KM));
+            }
+            generator.writeObject(summary);
+            generator.writeRaw('\n');
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while analyzing items", e);
+        }
+    }
+
+    private void start(Batch batch, int index, ItemBatchAnalysisResult[] results, BlockingQueue<Integer> finished) {
+        String fileName = batch.fileNames.get(index);
+        itemAnalysisService.analyzeItemAsync(batch.images.get(index), new ItemAnalysisRequest())
+                .whenComplete((analysis, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error;
+                        results[index] = new ItemBatchAnalysisResult(index, fileName, null,
+                                "Error analyzing item: " + cause.getMessage());
+                    } else {
+                        results[index] = new ItemBatchAnalysisResult(index, fileName, analysis, null);
+                    }
+                    finished.add(index);
+                });
+    }
+
+    /**
+     * Ingested images of one request; closing deletes any not yet analyzed
+     */
+    public static final class Batch implements AutoCloseable {
+        private final List<String> fileNames;
+        private final List<ItemImage> images;
+
+        private Batch(int size) {
+            fileNames = new ArrayList<>(size);
+            images = new ArrayList<>(size);
+        }
+
+        private void add(String fileName, ItemImage image) {
+            fileNames.add(fileName);
+            images.add(image);
+        }
+
+        @Override
+        public void close() {
+            images.forEach(ItemImage::close);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.dwelzy.dwelzy.service;
+
+import com.dwelzy.dwelzy.util.PerceptualHash;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.OptionalLong;
+
+/**
+ * An ingested item image on disk, with the size and SHA-256 hash measured while it was written.
+ * Analyzers read it through the path, a channel or a read-only memory mapping, never as a heap copy.
+ * Closing the image deletes its temporary file.
+ */
+public final class ItemImage implements AutoCloseable {
+
+    private final Path path;
+    private final long size;
+    private final String sha256;
+    private final String contentType;
+    private long sourceSize;
+    private OptionalLong perceptualHash;
+
+    ItemImage(Path path, long size, String sha256, String contentType) {
+        this.path = path;
+        this.size = size;
+        this.sha256 = sha256;
+        this.contentType = contentType;
+        this.sourceSize = size;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Size of the upload this image was made from; its own size unless it is a normalized rendition
+     */
+    public long getSourceSize() {
+        return sourceSize;
+    }
+
+    void setSourceSize(long sourceSize) {
+        this.sourceSize = sourceSize;
+    }
+
+    /**
+     * Lower-case hex SHA-256 of the image bytes
+     */
+    public String getSha256() {
+        return sha256;
+    }
+
+    /**
+     * Perceptual hash for near-duplicate matching, decoded on first use only; empty if not a readable image
+     */
+    public synchronized OptionalLong getPerceptualHash() throws IOException {
+        if (perceptualHash == null) {
+            perceptualHash = PerceptualHash.dHash(path);
+        }
+        return perceptualHash;
+    }
+
+    synchronized void setPerceptualHash(long hash) {
+        perceptualHash = OptionalLong.of(hash);
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public FileChannel openChannel() throws IOException {
+        return FileChannel.open(path, StandardOpenOption.READ);
+    }
+
+    /**
+     * Map the whole image read-only; the mapping stays valid after the channel is closed
+     */
+    public ByteBuffer map() throws IOException {
+        try (FileChannel channel = openChannel()) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Left for the temp directory cleanup
+        }
+    }
+}
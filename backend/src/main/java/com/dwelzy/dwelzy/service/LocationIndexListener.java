@@ -0,0 +1,63 @@
+package com.dwelzy.dwelzy.service;
+
+import com.dwelzy.dwelzy.entity.Driver;
+import com.dwelzy.dwelzy.entity.Hub;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import static com.dwelzy.dwelzy.util.TransactionCallbacks.afterCommit;
+
+/**
+ * JPA listener that forwards driver and hub changes to the in-memory location indexes once they commit
+ */
+@Component
+public class LocationIndexListener {
+
+    @Autowired
+    @Lazy
+    private DriverLocatorService driverLocatorService;
+
+    @Autowired
+    @Lazy
+    private HubLocatorService hubLocatorService;
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Object entity) {
+        if (entity instanceof Driver driver) {
+            Long driverId = driver.getId();
+            boolean available = driver.getStatus() == Driver.DriverStatus.AVAILABLE &&
+                                Boolean.TRUE.equals(driver.getIsVerified());
+            Long hubId = driver.getHub() != null ? driver.getHub().getId() : null;
+            afterCommit(() -> driverLocatorService.onDriverChanged(driverId, available, hubId));
+        } else if (entity instanceof Hub hub) {
+            Long hubId = hub.getId();
+            double[] location = hub.getLatitude() != null && hub.getLongitude() != null
+                    ? new double[]{hub.getLatitude().doubleValue(), hub.getLongitude().doubleValue()}
+                    : null;
+            boolean active = Boolean.TRUE.equals(hub.getIsActive());
+            afterCommit(() -> {
+                driverLocatorService.onHubChanged(hubId, location);
+                hubLocatorService.onHubChanged(hubId, location, active);
+            });
+        }
+    }
+
+    @PostRemove
+    public void onRemoved(Object entity) {
+        if (entity instanceof Driver driver) {
+            Long driverId = driver.getId();
+            afterCommit(() -> driverLocatorService.onDriverChanged(driverId, false, null));
+        } else if (entity instanceof Hub hub) {
+            Long hubId = hub.getId();
+            afterCommit(() -> {
+                driverLocatorService.onHubChanged(hubId, null);
+                hubLocatorService.onHubChanged(hubId, null, false);
+            });
+        }
+    }
+}
@@ -1,131 +1,148 @@
 package com.dwelzy.dwelzy.service;
 
 import com.dwelzy.dwelzy.dto.BookingRequest;
+import com.dwelzy.dwelzy.dto.RateTableDefinition;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 
+/**
+ * Prices bookings from a rate table file. The file is checked periodically and a changed
+ * table is compiled and swapped in atomically, so rates can change without a restart.
+ * Booking prices add the surcharges of the pickup and delivery zones and surge with the live
+ * demand at the pickup hub.
+ */
 @Service
 public class PricingService {
 
-    // Base pricing constants
-    private static final BigDecimal BASE_PRICE = new BigDecimal("50.00");
-    private static final BigDecimal PRICE_PER_KM = new BigDecimal("5.00");
-    private static final BigDecimal PRICE_PER_KG = new BigDecimal("10.00");
-    private static final BigDecimal VOLUME_MULTIPLIER = new BigDecimal("0.5");
-    private static final BigDecimal URGENT_SURCHARGE = new BigDecimal("25.00");
+    private static final Logger logger = LoggerFactory.getLogger(PricingService.class);
 
-    public BigDecimal calculatePrice(BookingRequest request) {
-        BigDecimal totalPrice = BASE_PRICE;
-
-        // Add distance-based pricing
-        if (request.getPickupLatitude() != null && request.getPickupLongitude() != null &&
-            request.getDeliveryLatitude() != null && request.getDeliveryLongitude() != null) {
-            
-            BigDecimal distance = calculateDistance(
-                request.getPickupLatitude(), request.getPickupLongitude(),
-                request.getDeliveryLatitude(), request.getDeliveryLongitude()
-            );
-            
-            totalPrice = totalPrice.add(distance.multiply(PRICE_PER_KM));
-        }
+    @Autowired
+    private RouteContextService routeContextService;
 
-        // Add weight-based pricing
-        if (request.getWeight() != null && request.getWeight() > 0) {
-            BigDecimal weightPrice = BigDecimal.valueOf(request.getWeight()).multiply(PRICE_PER_KG);
-            totalPrice = totalPrice.add(weightPrice);
-        }
+    @Autowired
+    private SurgePricingService surgePricingService;
 
-        // Add volume-based pricing
-        if (request.getLength() != null && request.getWidth() != null && request.getHeight() != null) {
-            double volume = request.getLength() * request.getWidth() * request.getHeight();
-            if (volume > 0) {
-                BigDecimal volumePrice = BigDecimal.valueOf(volume).multiply(VOLUME_MULTIPLIER);
-                totalPrice = totalPrice.add(volumePrice);
-            }
-        }
+    @Value("${dwelzy.app.pricingRatesLocation:classpath:pricing-rates.json}")
+    private String ratesLocation;
 
-        // Add item type surcharge
-        if (request.getItemType() != null) {
-            BigDecimal itemSurcharge = getItemTypeSurcharge(request.getItemType());
-            totalPrice = totalPrice.add(itemSurcharge);
-        }
+    private final ResourceLoader resourceLoader = new DefaultResourceLoader();
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
-        // Add urgent delivery surcharge if scheduled within 2 hours
-        if (request.getScheduledPickupTime() != null) {
-            long hoursUntilPickup = java.time.Duration.between(
-                java.time.LocalDateTime.now(), 
-                request.getScheduledPickupTime()
-            ).toHours();
-            
-            if (hoursUntilPickup <= 2) {
-                totalPrice = totalPrice.add(URGENT_SURCHARGE);
-            }
-        }
+    private volatile RateTable rateTable;
+    private long ratesLastModified;
 
-        return totalPrice.setScale(2, RoundingMode.HALF_UP);
+    @PostConstruct
+    void init() {
+        loadRates();
     }
 
-    private BigDecimal getItemTypeSurcharge(String itemType) {
-        return switch (itemType.toLowerCase()) {
-            case "fragile" -> new BigDecimal("20.00");
-            case "electronics" -> new BigDecimal("15.00");
-            case "documents" -> new BigDecimal("5.00");
-            case "food" -> new BigDecimal("10.00");
-            case "medical" -> new BigDecimal("30.00");
-            case "hazardous" -> new BigDecimal("50.00");
-            default -> BigDecimal.ZERO;
-        };
+    /**
+     * Load the rate table file, failing when it cannot be read or compiled
+     */
+    public synchronized void loadRates() {
+        Resource resource = resourceLoader.getResource(ratesLocation);
+        try (InputStream input = resource.getInputStream()) {
+            long lastModified = lastModified(resource);
+            RateTableDefinition definition = objectMapper.readValue(input, RateTableDefinition.class);
+            rateTable = RateTable.compile(definition);
+            ratesLastModified = lastModified;
+            logger.info("Loaded rate table '{}' as version {}", rateTable.getName(), rateTable.getVersion());
+        } catch (IOException e) {
+            throw new RuntimeException("Error loading rate table from " + ratesLocation + ": " + e.getMessage(), e);
+        }
     }
 
-    private BigDecimal calculateDistance(BigDecimal lat1, BigDecimal lon1, BigDecimal lat2, BigDecimal lon2) {
-        // Haversine formula to calculate distance between two points
-        double earthRadius = 6371; // Earth radius in kilometers
+    /**
+     * Reload the rate table file when it changed, keeping the current rates if the new file is invalid
+     */
+    @Scheduled(fixedDelayString = "${dwelzy.app.pricingRatesReloadMs:30000}")
+    public synchronized void reloadRatesIfChanged() {
+        long lastModified = lastModified(resourceLoader.getResource(ratesLocation));
+        if (lastModified == ratesLastModified) {
+            return;
+        }
+        try {
+            loadRates();
+        } catch (RuntimeException e) {
+            ratesLastModified = lastModified;
+            logger.error("Keeping rate table version {}: {}", rateTable.getVersion(), e.getMessage());
+        }
+    }
 
-        double dLat = Math.toRadians(lat2.doubleValue() - lat1.doubleValue());
-        double dLon = Math.toRadians(lon2.doubleValue() - lon1.doubleValue());
+    /**
+     * Compile and swap in new rates directly
+     */
+    public void updateRates(RateTableDefinition definition) {
+        rateTable = RateTable.compile(definition);
+    }
 
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                   Math.cos(Math.toRadians(lat1.doubleValue())) * Math.cos(Math.toRadians(lat2.doubleValue())) *
-                   Math.sin(dLon / 2) * Math.sin(dLon / 2);
+    public RateTable getRateTable() {
+        return rateTable;
+    }
 
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        double distance = earthRadius * c;
+    public BigDecimal calculatePrice(BookingRequest request) {
+        return calculatePrice(request, routeContextService.build(request));
+    }
 
-        return BigDecimal.valueOf(distance);
+    /**
+     * Price a booking request whose route context was already built
+     */
+    public BigDecimal calculatePrice(BookingRequest request, RouteContext route) {
+        // Surge from the demand at the pickup hub
+        RateTable rates = rateTable;
+        int surgeBasisPoints = rates.surgeBasisPoints(surgePricingService.getDemandRatioPermille(route.pickupHubId()));
+
+        return quote(rates, route.distanceKm(), request.getWeight(),
+                     volume(request.getLength(), request.getWidth(), request.getHeight()), request.getItemType(),
+                     route.pickupZoneId(), route.deliveryZoneId(), route.pickupHour(),
+                     route.isUrgent(rates.getUrgentWithinHours()), surgeBasisPoints);
     }
 
     public BigDecimal getEstimatedPrice(Double weight, Double length, Double width, Double height, 
                                        String itemType, BigDecimal distance) {
-        BigDecimal totalPrice = BASE_PRICE;
+        return getEstimatedPriceByVolume(weight, volume(length, width, height), itemType, distance);
+    }
 
-        // Add distance-based pricing
-        if (distance != null) {
-            totalPrice = totalPrice.add(distance.multiply(PRICE_PER_KM));
-        }
+    /**
+     * Estimate for a total weight and volume without individual dimensions, e.g. several items shipped together
+     */
+    public BigDecimal getEstimatedPriceByVolume(Double weight, Double volume, String itemType, BigDecimal distance) {
+        return quote(rateTable, distance != null ? distance.doubleValue() : Double.NaN, weight,
+                     volume != null ? volume : 0, itemType, null, null, RateTable.NO_PICKUP_HOUR, false,
+                     RateTable.NO_SURGE);
+    }
 
-        // Add weight-based pricing
-        if (weight != null && weight > 0) {
-            BigDecimal weightPrice = BigDecimal.valueOf(weight).multiply(PRICE_PER_KG);
-            totalPrice = totalPrice.add(weightPrice);
-        }
+    private static double volume(Double length, Double width, Double height) {
+        return length != null && width != null && height != null ? length * width * height : 0;
+    }
 
-        // Add volume-based pricing
-        if (length != null && width != null && height != null) {
-            double volume = length * width * height;
-            if (volume > 0) {
-                BigDecimal volumePrice = BigDecimal.valueOf(volume).multiply(VOLUME_MULTIPLIER);
-                totalPrice = totalPrice.add(volumePrice);
-            }
-        }
+    private BigDecimal quote(RateTable rates, double distance, Double weight, double volume, String itemType,
+                             String pickupZone, String deliveryZone, int pickupHour,
+                             boolean urgent, int surgeBasisPoints) {
+        return BigDecimal.valueOf(rates.quoteCents(distance, weight != null && weight > 0 ? weight : 0,
+            Math.max(volume, 0), itemType, pickupZone, deliveryZone, pickupHour,
+            urgent ? Long.MIN_VALUE : RateTable.NO_PICKUP_TIME, surgeBasisPoints), 2);
+    }
 
-        // Add item type surcharge
-        if (itemType != null) {
-            BigDecimal itemSurcharge = getItemTypeSurcharge(itemType);
-            totalPrice = totalPrice.add(itemSurcharge);
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            // Not a file, e.g. a classpath entry inside the jar: treat as never changing
+            return 0;
         }
-
-        return totalPrice.setScale(2, RoundingMode.HALF_UP);
     }
 }
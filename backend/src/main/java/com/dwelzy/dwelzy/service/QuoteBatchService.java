@@ -0,0 +1,175 @@
+package com.dwelzy.dwelzy.service;
+
+import com.dwelzy.dwelzy.dto.QuoteRequest;
+import com.dwelzy.dwelzy.dto.QuoteResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+
+/**
+ * Prices a streamed JSON array of quote requests and streams the quotes back as NDJSON, in input order.
+ * Requests are read in chunks; a chunk is priced in parallel while the next one is parsed, so memory
+ * stays at two chunks whatever the batch size.
+ */
+@Service
+public class QuoteBatchService {
+
+    // Same default as item analysis when the caller does not know the route yet
+    private static final BigDecimal DEFAULT_DISTANCE_KM = BigDecimal.valueOf(10.0);
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${dwelzy.app.quoteBatchChunkSize:1000}")
+    private int chunkSize;
+
+    @Value("${dwelzy.app.quoteBatchParallelism:0}")
+    private int parallelism;
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    void init() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Open a parser on the request body, positioned after the opening bracket of the array
+     */
+    public JsonParser openBatch(InputStream input) throws IOException {
+        JsonParser parser = objectMapper.getFactory().createParser(input);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            parser.close();
+            throw new RuntimeException("Request body must be a JSON array of quote requests");
+        }
+        return parser;
+    }
+
+    /**
+     * Price every request left in the array and write one quote per line. A malformed request
+     * ends the batch with an error line after the quotes read before it, since the response is
+     * already streaming by then.
+     */
+    public void quoteBatch(JsonParser parser, OutputStream output) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(output);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Lines are separated explicitly instead of by the default space between root values
+        generator.setRootValueSeparator(null);
+
+        try (parser; generator) {
+            Chunk pending = null;
+            while (true) {
+                Chunk chunk = readChunk(parser);
+
+                // Write the previous chunk once priced, while this one was being parsed
+                if (pending != null) {
+                    writeQuotes(generator, pending);
+                }
+                if (chunk.count > 0) {
+                    chunk.task = pool.submit(() -> IntStream.range(0, chunk.count).parallel()
+                            .forEach(i -> chunk.quotes[i] = quote(chunk.requests[i])));
+                }
+                if (chunk.error != null || chunk.count < chunkSize) {
+                    if (chunk.count > 0) {
+                        writeQuotes(generator, chunk);
+                    }
+                    if (chunk.error != null) {
+                        generator.writeObject(new QuoteResponse(null, null,
+                                "Error reading quote requests: " + chunk.error.getMessage()));
+                        generator.writeRaw('\n');
+                    }
+                    break;
+                }
+                pending = chunk;
+            }
+        }
+    }
+
+    private Chunk readChunk(JsonParser parser) {
+        Chunk chunk = new Chunk(chunkSize);
+        try {
+            while (chunk.count < chunkSize) {
+                JsonToken token = parser.nextToken();
+                if (token == null || token == JsonToken.END_ARRAY) {
+                    break;
+                }
+                if (token != JsonToken.START_OBJECT) {
+                    throw new RuntimeException("Expected a quote request object but found " + token);
+                }
+                QuoteRequest request = objectMapper.readValue(parser, QuoteRequest.class);
+                chunk.requests[chunk.count++] = request;
+            }
+        } catch (IOException | RuntimeException e) {
+            chunk.error = e;
+        }
+        return chunk;
+    }
+
+    private QuoteResponse quote(QuoteRequest request) {
+        try {
+            BigDecimal distance = request.getDistanceKm() != null
+                    ? BigDecimal.valueOf(request.getDistanceKm())
+                    : DEFAULT_DISTANCE_KM;
+            BigDecimal price = pricingService.getEstimatedPrice(request.getWeight(), request.getLength(),
+                    request.getWidth(), request.getHeight(), request.getItemType(), distance);
+            return new QuoteResponse(request.getId(), price, null);
+        } catch (RuntimeException e) {
+            return new QuoteResponse(request.getId(), null, "Error calculating price: " + e.getMessage());
+        }
+    }
+
+    private void writeQuotes(JsonGenerator generator, Chunk chunk) throws IOException {
+        try {
+            chunk.task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while pricing quotes", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Error pricing quotes: " + e.getCause().getMessage(), e.getCause());
+        }
+        for (int i = 0; i < chunk.count; i++) {
+            generator.writeObject(chunk.quotes[i]);
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+    }
+
+    /**
+     * Requests read in one go and their quotes, filled in by the pricing task
+     */
+    private static final class Chunk {
+        private final QuoteRequest[] requests;
+        private final QuoteResponse[] quotes;
+        private int count;
+        private Exception error;
+        private ForkJoinTask<?> task;
+
+        private Chunk(int size) {
+            requests = new QuoteRequest[size];
+            quotes = new QuoteResponse[size];
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.dwelzy.dwelzy.service;
+
+import com.dwelzy.dwelzy.dto.RateTableDefinition;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable, compiled form of a RateTableDefinition. Quotes are evaluated in long cents
+ * against primitive arrays and prebuilt maps, without allocating.
+ */
+public final class RateTable {
+
+    public static final int NO_PICKUP_HOUR = -1;
+    public static final long NO_PICKUP_TIME = Long.MAX_VALUE;
+    public static final int NO_SURGE = 10_000;
+
+    // Bracket charges are kept in 1/10000 cent and rounded to whole cents once, like the total used to be
+    private static final long SUB_CENTS = 10_000;
+
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    private final long version;
+    private final String name;
+    private final long baseCents;
+    private final Brackets distanceBrackets;
+    private final Brackets weightBrackets;
+    private final Brackets volumeBrackets;
+    private final Map<String, Long> itemTypeSurcharges;
+    private final Map<String, Long> zoneSurcharges;
+    private final long[] hourSurcharges;
+    private final int urgentWithinHours;
+    private final long urgentSurchargeCents;
+    private final int[] surgeRatiosPermille;
+    private final int[] surgeBasisPoints;
+
+    private RateTable(RateTableDefinition definition) {
+        this.version = VERSIONS.incrementAndGet();
+        this.name = definition.getName();
+        this.baseCents = definition.getBaseCents();
+        this.distanceBrackets = new Brackets("distance", definition.getDistanceBrackets());
+        this.weightBrackets = new Brackets("weight", definition.getWeightBrackets());
+        this.volumeBrackets = new Brackets("volume", definition.getVolumeBrackets());
+
+        this.itemTypeSurcharges = new HashMap<>();
+        definition.getItemTypeSurcharges().forEach((itemType, cents) ->
+            itemTypeSurcharges.put(itemType.toLowerCase(Locale.ROOT), cents));
+        this.zoneSurcharges = new HashMap<>(definition.getZoneSurcharges());
+
+        this.hourSurcharges = new long[24];
+        for (RateTableDefinition.TimeWindow window : definition.getTimeOfDaySurcharges()) {
+            if (window.getFromHour() < 0 || window.getFromHour() > 23 || window.getToHour() < 0 || window.getToHour() > 24) {
+                throw new IllegalArgumentException("Invalid time window: " + window.getFromHour() + "-" + window.getToHour());
+            }
+            // Equal bounds cover the whole day
+            int hour = window.getFromHour();
+            do {
+                hourSurcharges[hour] += window.getCents();
+                hour = (hour + 1) % 24;
+            } while (hour != window.getToHour() % 24);
+        }
+
+        this.urgentWithinHours = definition.getUrgentWithinHours();
+        this.urgentSurchargeCents = definition.getUrgentSurchargeCents();
+
+        List<RateTableDefinition.SurgeLevel> levels = new ArrayList<>(definition.getSurgeLevels());
+        levels.sort(Comparator.comparingDouble(RateTableDefinition.SurgeLevel::getMinDemandRatio));
+        this.surgeRatiosPermille = new int[levels.size()];
+        this.surgeBasisPoints = new int[levels.size()];
+        for (int i = 0; i < levels.size(); i++) {
+            RateTableDefinition.SurgeLevel level = levels.get(i);
+            if (level.getMinDemandRatio() < 0 || level.getMultiplier() <= 0) {
+                throw new IllegalArgumentException("Invalid surge level: " + level.getMinDemandRatio() + " x" + level.getMultiplier());
+            }
+            surgeRatiosPermille[i] = (int) Math.round(level.getMinDemandRatio() * 1000);
+            surgeBasisPoints[i] = (int) Math.round(level.getMultiplier() * NO_SURGE);
+        }
+    }
+
+    /**
+     * Validate and compile a definition, giving it a new version
+     */
+    public static RateTable compile(RateTableDefinition definition) {
+        return new RateTable(definition);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getUrgentWithinHours() {
+        return urgentWithinHours;
+    }
+
+    /**
+     * Surge multiplier in basis points for a hub's waiting bookings per available driver, in 1/1000
+     */
+    public int surgeBasisPoints(int demandRatioPermille) {
+        int basisPoints = NO_SURGE;
+        for (int i = 0; i < surgeRatiosPermille.length && surgeRatiosPermille[i] <= demandRatioPermille; i++) {
+            basisPoints = surgeBasisPoints[i];
+        }
+        return basisPoints;
+    }
+
+    /**
+     * Price in cents. Pass NaN for an unknown distance, 0 for unknown weight or volume, null for
+     * unknown item type or zones, NO_PICKUP_HOUR and NO_PICKUP_TIME when no pickup time is scheduled,
+     * and NO_SURGE outside of surge.
+     */
+    public long quoteCents(double distanceKm, double weightKg, double volume, String itemType,
+                           String pickupZone, String deliveryZone, int pickupHour, long hoursUntilPickup,
+                           int surgeBasisPoints) {
+        // Distance, weight and volume brackets
+        long subCents = distanceBrackets.subCents(distanceKm) +
+                        weightBrackets.subCents(weightKg) +
+                        volumeBrackets.subCents(volume);
+        long cents = baseCents + (subCents + SUB_CENTS / 2) / SUB_CENTS;
+
+        // Item type surcharge
+        if (itemType != null) {
+            cents += itemTypeSurcharge(itemType);
+        }
+
+        // Zone surcharges, charged once per distinct zone
+        if (pickupZone != null) {
+            cents += zoneSurcharges.getOrDefault(pickupZone, 0L);
+        }
+        if (deliveryZone != null && !deliveryZone.equals(pickupZone)) {
+            cents += zoneSurcharges.getOrDefault(deliveryZone, 0L);
+        }
+
+        // Time of day and urgent pickup surcharges
+        if (pickupHour >= 0 && pickupHour < 24) {
+            cents += hourSurcharges[pickupHour];
+        }
+        if (hoursUntilPickup <= urgentWithinHours) {
+            cents += urgentSurchargeCents;
+        }
+
+        // Surge applies to the whole price, rounded half up to the cent
+        if (surgeBasisPoints != NO_SURGE) {
+            cents = (cents * surgeBasisPoints + NO_SURGE / 2) / NO_SURGE;
+        }
+
+        return cents;
+    }
+
+    private long itemTypeSurcharge(String itemType) {
+        Long cents = itemTypeSurcharges.get(itemType);
+        if (cents == null) {
+            // Keys are lower case, only convert inputs that are not
+            cents = itemTypeSurcharges.get(itemType.toLowerCase(Locale.ROOT));
+        }
+        return cents != null ? cents : 0;
+    }
+
+    /**
+     * Marginal brackets over one quantity, with the cost of every bracket below each one precomputed
+     */
+    private static final class Brackets {
+        private final double[] from;
+        private final double[] centsPerUnit;
+        private final double[] centsBelow;
+
+        private Brackets(String quantity, List<RateTableDefinition.Bracket> brackets) {
+            List<RateTableDefinition.Bracket> sorted = new ArrayList<>(brackets);
+            sorted.sort(Comparator.comparingDouble(RateTableDefinition.Bracket::getFrom));
+
+            int size = sorted.size();
+            from = new double[size];
+            centsPerUnit = new double[size];
+            centsBelow = new double[size];
+            double cumulative = 0;
+            for (int i = 0; i < size; i++) {
+                RateTableDefinition.Bracket bracket = sorted.get(i);
+                if (bracket.getFrom() < 0 || bracket.getCentsPerUnit() < 0 || bracket.getFlatCents() < 0) {
+                    throw new IllegalArgumentException("Negative " + quantity + " bracket from " + bracket.getFrom());
+                }
+                if (i > 0 && bracket.getFrom() == from[i - 1]) {
+                    throw new IllegalArgumentException("Duplicate " + quantity + " bracket from " + bracket.getFrom());
+                }
+                if (i > 0) {
+                    cumulative += (bracket.getFrom() - from[i - 1]) * centsPerUnit[i - 1];
+                }
+                cumulative += bracket.getFlatCents();
+                from[i] = bracket.getFrom();
+                centsPerUnit[i] = bracket.getCentsPerUnit();
+                centsBelow[i] = cumulative;
+            }
+        }
+
+        private long subCents(double quantity) {
+            // Also false for NaN, which marks an unknown quantity
+            if (!(quantity > 0)) {
+                return 0;
+            }
+            int bracket = -1;
+            for (int i = 0; i < from.length && from[i] <= quantity; i++) {
+                bracket = i;
+            }
+            if (bracket < 0) {
+                return 0;
+            }
+            return Math.round((centsBelow[bracket] + (quantity - from[bracket]) * centsPerUnit[bracket]) * SUB_CENTS);
+        }
+    }
+}
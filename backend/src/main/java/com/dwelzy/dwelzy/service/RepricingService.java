@@ -0,0 +1,369 @@
+package com.dwelzy.dwelzy.service;
+
+import com.dwelzy.dwelzy.dto.RateTableDefinition;
+import com.dwelzy.dwelzy.dto.RepricingReport;
+import com.dwelzy.dwelzy.entity.Booking;
+import com.dwelzy.dwelzy.repository.BookingRepository;
+import com.dwelzy.dwelzy.util.GeoMath;
+import com.dwelzy.dwelzy.util.ZoneIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * What-if repricing of every historical booking under a candidate rate table, reporting revenue
+ * deltas against the current rates per pickup hub and per item type. One job runs at a time. It
+ * streams bookings from a read-only cursor in chunks, and prices each chunk in parallel while the
+ * next one is read. Memory is bounded by the chunks in flight, whatever the number of bookings.
+ * Surge is left out on both sides, since the demand at booking time is not recorded.
+ */
+@Service
+public class RepricingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RepricingService.class);
+
+    private static final int MAX_REPORTS = 20;
+    private static final long NO_HUB = -1;
+    private static final String NO_HUB_KEY = "none";
+    private static final String UNKNOWN_ITEM_TYPE = "unknown";
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private PricingService pricingService;
+
+    @Autowired
+    private ZoneService zoneService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${dwelzy.app.repricingChunkSize:2000}")
+    private int chunkSize;
+
+    @Value("${dwelzy.app.repricingParallelism:0}")
+    private int parallelism;
+
+    private ForkJoinPool pool;
+    private ExecutorService jobRunner;
+
+    // Most recent jobs by id, oldest dropped first
+    private final Map<String, Job> jobs = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Job> eldest) {
+            return size() > MAX_REPORTS;
+        }
+    });
+
+    @PostConstruct
+    void init() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        jobRunner = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "repricing");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobRunner.shutdownNow();
+        pool.shutdown();
+    }
+
+    /**
+     * Validate the candidate rates and queue a repricing job, returning its initial report
+     */
+    public RepricingReport startSimulation(RateTableDefinition candidate) {
+        RateTable candidateRates;
+        try {
+            candidateRates = RateTable.compile(candidate);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid rate table: " + e.getMessage(), e);
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), candidateRates);
+        jobs.put(job.id, job);
+        jobRunner.submit(() -> run(job));
+        return job.toReport();
+    }
+
+    public Optional<RepricingReport> getReport(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(Job::toReport);
+    }
+
+    private void run(Job job) {
+        job.status = RepricingReport.Status.RUNNING;
+        job.startedAt = LocalDateTime.now();
+        RateTable currentRates = pricingService.getRateTable();
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        try {
+            transaction.executeWithoutResult(status -> {
+                try (Stream<Booking> bookings = bookingRepository.streamAll()) {
+                    reprice(bookings.iterator(), currentRates, job);
+                }
+            });
+            job.status = RepricingReport.Status.COMPLETED;
+        } catch (RuntimeException e) {
+            logger.error("Repricing job {} failed: {}", job.id, e.getMessage());
+            job.error = e.getMessage();
+            job.status = RepricingReport.Status.FAILED;
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    private void reprice(Iterator<Booking> bookings, RateTable currentRates, Job job) {
+        // Enough chunks in flight to keep every worker busy while the cursor is read
+        int maxInFlight = pool.getParallelism() * 2;
+        Deque<ForkJoinTask<?>> inFlight = new ArrayDeque<>();
+
+        while (bookings.hasNext()) {
+            Chunk chunk = new Chunk(chunkSize);
+            while (chunk.count < chunkSize && bookings.hasNext()) {
+                chunk.add(bookings.next());
+            }
+            // The chunk holds only primitives, so the entities read so far can go
+            entityManager.clear();
+
+            if (inFlight.size() >= maxInFlight) {
+                await(inFlight.removeFirst());
+            }
+            inFlight.addLast(pool.submit(() -> job.add(chunk.price(currentRates, job.candidateRates))));
+        }
+        while (!inFlight.isEmpty()) {
+            await(inFlight.removeFirst());
+        }
+    }
+
+    private static void await(ForkJoinTask<?> task) {
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Repricing interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error repricing bookings: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private static String hubKey(long hubId) {
+        return hubId == NO_HUB ? NO_HUB_KEY : Long.toString(hubId);
+    }
+
+    private static BigDecimal toCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Pricing inputs of a run of bookings in parallel arrays
+     */
+    private final class Chunk {
+        private final double[] distanceKm;
+        private final double[] weightKg;
+        private final double[] volume;
+        private final String[] itemTypes;
+        private final String[] pickupZones;
+        private final String[] deliveryZones;
+        private final int[] pickupHours;
+        private final long[] hoursUntilPickup;
+        private final long[] chargedCents;
+        private final long[] hubIds;
+        private int count;
+
+        private Chunk(int size) {
+            distanceKm = new double[size];
+            weightKg = new double[size];
+            volume = new double[size];
+            itemTypes = new String[size];
+            pickupZones = new String[size];
+            deliveryZones = new String[size];
+            pickupHours = new int[size];
+            hoursUntilPickup = new long[size];
+            chargedCents = new long[size];
+            hubIds = new long[size];
+        }
+
+        private void add(Booking booking) {
+            int i = count++;
+            boolean hasPickup = booking.getPickupLatitude() != null && booking.getPickupLongitude() != null;
+            boolean hasDelivery = booking.getDeliveryLatitude() != null && booking.getDeliveryLongitude() != null;
+
+            distanceKm[i] = Double.NaN;
+            if (hasPickup && hasDelivery) {
+                distanceKm[i] = GeoMath.distanceKm(
+                    booking.getPickupLatitude().doubleValue(), booking.getPickupLongitude().doubleValue(),
+                    booking.getDeliveryLatitude().doubleValue(), booking.getDeliveryLongitude().doubleValue());
+            } else if (booking.getDistanceKm() != null) {
+                distanceKm[i] = booking.getDistanceKm().doubleValue();
+            }
+            weightKg[i] = booking.getWeight() != null ? booking.getWeight() : 0;
+            volume[i] = booking.getLength() != null && booking.getWidth() != null && booking.getHeight() != null
+                    ? booking.getLength() * booking.getWidth() * booking.getHeight() : 0;
+            itemTypes[i] = booking.getItemType();
+            pickupZones[i] = hasPickup
+                    ? zoneId(booking.getPickupLatitude(), booking.getPickupLongitude()) : null;
+            deliveryZones[i] = hasDelivery
+                    ? zoneId(booking.getDeliveryLatitude(), booking.getDeliveryLongitude()) : null;
+
+            // Timing as it was when the booking was priced
+            pickupHours[i] = RateTable.NO_PICKUP_HOUR;
+            hoursUntilPickup[i] = RateTable.NO_PICKUP_TIME;
+            if (booking.getScheduledPickupTime() != null) {
+                pickupHours[i] = booking.getScheduledPickupTime().getHour();
+                if (booking.getCreatedAt() != null) {
+                    hoursUntilPickup[i] = Duration.between(booking.getCreatedAt(),
+                                                           booking.getScheduledPickupTime()).toHours();
+                }
+            }
+
+            chargedCents[i] = booking.getTotalPrice().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+            // The id of a lazy association is read without loading the hub
+            hubIds[i] = booking.getPickupHub() != null ? booking.getPickupHub().getId() : NO_HUB;
+        }
+
+        private String zoneId(BigDecimal latitude, BigDecimal longitude) {
+            ZoneIndex.Zone zone = zoneService.findZone(latitude.doubleValue(), longitude.doubleValue());
+            return zone != null ? zone.id() : null;
+        }
+
+        private Totals price(RateTable currentRates, RateTable candidateRates) {
+            Totals totals = new Totals();
+            for (int i = 0; i < count; i++) {
+                long current = currentRates.quoteCents(distanceKm[i], weightKg[i], volume[i], itemTypes[i],
+                        pickupZones[i], deliveryZones[i], pickupHours[i], hoursUntilPickup[i], RateTable.NO_SURGE);
+                long candidate = candidateRates.quoteCents(distanceKm[i], weightKg[i], volume[i], itemTypes[i],
+                        pickupZones[i], deliveryZones[i], pickupHours[i], hoursUntilPickup[i], RateTable.NO_SURGE);
+                String itemType = itemTypes[i] != null ? itemTypes[i].toLowerCase(Locale.ROOT) : UNKNOWN_ITEM_TYPE;
+
+                Totals.add(totals.total, chargedCents[i], current, candidate);
+                Totals.add(totals.byHub.computeIfAbsent(hubIds[i], k -> new long[4]),
+                           chargedCents[i], current, candidate);
+                Totals.add(totals.byItemType.computeIfAbsent(itemType, k -> new long[4]),
+                           chargedCents[i], current, candidate);
+            }
+            return totals;
+        }
+    }
+
+    /**
+     * Bookings, charged, current and candidate cents, overall and per group
+     */
+    private static final class Totals {
+        private final long[] total = new long[4];
+        private final Map<Long, long[]> byHub = new HashMap<>();
+        private final Map<String, long[]> byItemType = new HashMap<>();
+
+        private static void add(long[] sums, long charged, long current, long candidate) {
+            sums[0]++;
+            sums[1] += charged;
+            sums[2] += current;
+            sums[3] += candidate;
+        }
+
+        private static void merge(long[] into, long[] from) {
+            for (int i = 0; i < into.length; i++) {
+                into[i] += from[i];
+            }
+        }
+
+        private void merge(Totals other) {
+            merge(total, other.total);
+            other.byHub.forEach((hubId, sums) -> merge(byHub.computeIfAbsent(hubId, k -> new long[4]), sums));
+            other.byItemType.forEach((itemType, sums) ->
+                merge(byItemType.computeIfAbsent(itemType, k -> new long[4]), sums));
+        }
+
+        private static RepricingReport.RevenueDelta toDelta(String key, long[] sums) {
+            return new RepricingReport.RevenueDelta(key, sums[0], toCents(sums[1]), toCents(sums[2]), toCents(sums[3]));
+        }
+    }
+
+    private static final class Job {
+        private final String id;
+        private final RateTable candidateRates;
+        private final Totals totals = new Totals();
+        private final AtomicLong processed = new AtomicLong();
+        private volatile RepricingReport.Status status = RepricingReport.Status.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        private Job(String id, RateTable candidateRates) {
+            this.id = id;
+            this.candidateRates = candidateRates;
+        }
+
+        private void add(Totals chunkTotals) {
+            synchronized (totals) {
+                totals.merge(chunkTotals);
+            }
+            processed.addAndGet(chunkTotals.total[0]);
+        }
+
+        private RepricingReport toReport() {
+            RepricingReport report = new RepricingReport();
+            report.setId(id);
+            report.setStatus(status);
+            report.setRateTableName(candidateRates.getName());
+            report.setBookingsProcessed(processed.get());
+            report.setStartedAt(startedAt);
+            report.setFinishedAt(finishedAt);
+            report.setError(error);
+
+            synchronized (totals) {
+                report.setTotal(Totals.toDelta("total", totals.total));
+                List<RepricingReport.RevenueDelta> byHub = new ArrayList<>();
+                totals.byHub.entrySet().stream()
+                        .sorted(Map.Entry.comparingByKey())
+                        .forEach(e -> byHub.add(Totals.toDelta(hubKey(e.getKey()), e.getValue())));
+                report.setByPickupHub(byHub);
+
+                List<RepricingReport.RevenueDelta> byItemType = new ArrayList<>();
+                totals.byItemType.forEach((itemType, sums) -> byItemType.add(Totals.toDelta(itemType, sums)));
+                byItemType.sort(Comparator.comparing(RepricingReport.RevenueDelta::getKey));
+                report.setByItemType(byItemType);
+            }
+            return report;
+        }
+    }
+}
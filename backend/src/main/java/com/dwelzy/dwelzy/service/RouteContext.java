@@ -0,0 +1,48 @@
+package com.dwelzy.dwelzy.service;
+
+import com.dwelzy.dwelzy.util.ZoneIndex;
+
+import java.math.BigDecimal;
+
+/**
+ * Route facts derived once from a booking's locations and pickup time, shared by pricing,
+ * persistence and hub assignment. Unknown values are NaN distance, null hubs and zones,
+ * and RateTable.NO_PICKUP_HOUR / NO_PICKUP_TIME.
+ */
+public record RouteContext(double distanceKm, Long pickupHubId, Long deliveryHubId,
+                           ZoneIndex.Zone pickupZone, ZoneIndex.Zone deliveryZone, int pickupHour,
+                           long hoursUntilPickup) {
+
+    public boolean hasDistance() {
+        return !Double.isNaN(distanceKm);
+    }
+
+    /**
+     * Distance as stored on the booking, null when unknown
+     */
+    public BigDecimal distance() {
+        return hasDistance() ? BigDecimal.valueOf(distanceKm) : null;
+    }
+
+    public String pickupZoneId() {
+        return pickupZone != null ? pickupZone.id() : null;
+    }
+
+    public String deliveryZoneId() {
+        return deliveryZone != null ? deliveryZone.id() : null;
+    }
+
+    /**
+     * Whether neither end of the route lies in a no-service zone
+     */
+    public boolean isServiceable() {
+        return (pickupZone == null || pickupZone.serviceable()) && (deliveryZone == null || deliveryZone.serviceable());
+    }
+
+    /**
+     * Whether the pickup is scheduled within the given number of hours
+     */
+    public boolean isUrgent(int withinHours) {
+        return hoursUntilPickup <= withinHours;
+    }
+}
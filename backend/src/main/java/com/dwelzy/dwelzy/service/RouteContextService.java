@@ -0,0 +1,84 @@
+package com.dwelzy.dwelzy.service;
+
+import com.dwelzy.dwelzy.dto.BookingRequest;
+import com.dwelzy.dwelzy.entity.Booking;
+import com.dwelzy.dwelzy.entity.Hub;
+import com.dwelzy.dwelzy.repository.HubRepository;
+import com.dwelzy.dwelzy.util.GeoMath;
+import com.dwelzy.dwelzy.util.ZoneIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Builds the RouteContext of a booking request or an existing booking: distance, nearest pickup
+ * and delivery hubs, zones and pickup timing, each computed once.
+ */
+@Service
+public class RouteContextService {
+
+    @Autowired
+    private HubLocatorService hubLocatorService;
+
+    @Autowired
+    private HubRepository hubRepository;
+
+    @Autowired
+    private ZoneService zoneService;
+
+    public RouteContext build(BookingRequest request) {
+        return build(request.getPickupLatitude(), request.getPickupLongitude(),
+                     request.getDeliveryLatitude(), request.getDeliveryLongitude(),
+                     request.getScheduledPickupTime());
+    }
+
+    public RouteContext build(Booking booking) {
+        return build(booking.getPickupLatitude(), booking.getPickupLongitude(),
+                     booking.getDeliveryLatitude(), booking.getDeliveryLongitude(),
+                     booking.getScheduledPickupTime());
+    }
+
+    private RouteContext build(BigDecimal pickupLatitude, BigDecimal pickupLongitude,
+                               BigDecimal deliveryLatitude, BigDecimal deliveryLongitude,
+                               LocalDateTime scheduledPickupTime) {
+        boolean hasPickup = pickupLatitude != null && pickupLongitude != null;
+        boolean hasDelivery = deliveryLatitude != null && deliveryLongitude != null;
+
+        double distance = Double.NaN;
+        if (hasPickup && hasDelivery) {
+            distance = GeoMath.distanceKm(pickupLatitude.doubleValue(), pickupLongitude.doubleValue(),
+                                          deliveryLatitude.doubleValue(), deliveryLongitude.doubleValue());
+        }
+
+        Long pickupHubId = hasPickup ? findNearestHubId(pickupLatitude, pickupLongitude) : null;
+        Long deliveryHubId = hasDelivery ? findNearestHubId(deliveryLatitude, deliveryLongitude) : null;
+        ZoneIndex.Zone pickupZone = hasPickup
+                ? zoneService.findZone(pickupLatitude.doubleValue(), pickupLongitude.doubleValue()) : null;
+        ZoneIndex.Zone deliveryZone = hasDelivery
+                ? zoneService.findZone(deliveryLatitude.doubleValue(), deliveryLongitude.doubleValue()) : null;
+
+        // Pickup hour and urgency come from the scheduled pickup time
+        int pickupHour = RateTable.NO_PICKUP_HOUR;
+        long hoursUntilPickup = RateTable.NO_PICKUP_TIME;
+        if (scheduledPickupTime != null) {
+            pickupHour = scheduledPickupTime.getHour();
+            hoursUntilPickup = Duration.between(LocalDateTime.now(), scheduledPickupTime).toHours();
+        }
+
+        return new RouteContext(distance, pickupHubId, deliveryHubId, pickupZone, deliveryZone,
+                                pickupHour, hoursUntilPickup);
+    }
+
+    /**
+     * Find the nearest active hub from the hub index, or from the database while the index is loading
+     */
+    private Long findNearestHubId(BigDecimal latitude, BigDecimal longitude) {
+        if (!hubLocatorService.isReady()) {
+            return hubRepository.findNearestHubs(latitude, longitude).stream().findFirst().map(Hub::getId).orElse(null);
+        }
+        return hubLocatorService.findNearestHub(latitude.doubleValue(), longitude.doubleValue()).orElse(null);
+    }
+}
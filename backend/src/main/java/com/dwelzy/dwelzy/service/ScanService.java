@@ -1,23 +1,61 @@
 package com.dwelzy.dwelzy.service;
 
+import com.dwelzy.dwelzy.dto.BulkScanResult;
 import com.dwelzy.dwelzy.dto.ScanRequest;
 import com.dwelzy.dwelzy.entity.Booking;
+import com.dwelzy.dwelzy.entity.Driver;
 import com.dwelzy.dwelzy.entity.ShipmentEvent;
 import com.dwelzy.dwelzy.entity.User;
 import com.dwelzy.dwelzy.repository.BookingRepository;
+import com.dwelzy.dwelzy.repository.DriverRepository;
 import com.dwelzy.dwelzy.repository.ShipmentEventRepository;
 import com.dwelzy.dwelzy.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 @Transactional
 public class ScanService {
 
+    private static final String INSERT_EVENT_SQL = "INSERT INTO shipment_events (booking_id, event_type, description, "
+            + "event_timestamp, location, latitude, longitude, created_by_user_id, additional_notes, image_url, "
+            + "created_at, updated_at, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    // Guarded by the version like a JPA update, so a booking changed meanwhile is not overwritten
+    private static final String UPDATE_BOOKING_SQL = "UPDATE bookings SET status = ?, actual_pickup_time = ?, "
+            + "actual_delivery_time = ?, updated_at = ?, version = version + 1 WHERE id = ? AND version = ?";
+
+    private static final String SELECT_BOOKING_VERSIONS_SQL = "SELECT id, version, updated_at FROM bookings WHERE id IN (%s)";
+
     @Autowired
     private BookingRepository bookingRepository;
 
@@ -30,6 +68,33 @@ public class ScanService {
     @Autowired
     private DriverAssignmentService driverAssignmentService;
 
+    @Autowired
+    private ImageIngestService imageIngestService;
+
+    @Autowired
+    private ImageStoreService imageStoreService;
+
+    @Autowired
+    private ImageNormalizationService imageNormalizationService;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${dwelzy.app.scanBulkMaxSize:5000}")
+    private int bulkMaxSize;
+
+    @Value("${dwelzy.app.scanBulkJdbcBatchSize:500}")
+    private int jdbcBatchSize;
+
     public ShipmentEvent processScan(ScanRequest scanRequest, String username) {
         // Find the booking
         Booking booking = bookingRepository.findByBookingNumber(scanRequest.getBookingNumber())
@@ -54,9 +119,7 @@ public class ScanService {
 
         // Handle image if provided
         if (scanRequest.getImageBase64() != null && !scanRequest.getImageBase64().trim().isEmpty()) {
-            // In a real implementation, you would save the image to cloud storage
-            // and store the URL here. For now, we'll just indicate that an image was captured
-            event.setImageUrl("image_captured_" + System.currentTimeMillis());
+            event.setImageUrl(storeImage(scanRequest.getImageBase64()));
         }
 
         // Update booking status based on scan type
@@ -72,6 +135,294 @@ public class ScanService {
         return event;
     }
 
+    /**
+     * Apply many scans at once, as a hub sortation line produces them. All bookings are resolved with
+     * one query, status transitions are applied in memory in request order, and events and booking
+     * updates are written as JDBC batches. A scan that cannot be applied fails alone, in its result.
+     * Photos are normalized before the transaction and drivers released after it, so neither holds
+     * the booking rows locked and a failed release cannot roll back the scans.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<BulkScanResult> processBulkScans(List<ScanRequest> scanRequests, String username) {
+        if (scanRequests == null || scanRequests.isEmpty()) {
+            throw new RuntimeException("At least one scan is required");
+        }
+        if (scanRequests.size() > bulkMaxSize) {
+            throw new RuntimeException("At most " + bulkMaxSize + " scans can be processed at once");
+        }
+
+        List<BulkScanResult> results = new ArrayList<>(scanRequests.size());
+        for (int i = 0; i < scanRequests.size(); i++) {
+            ScanRequest scanRequest = scanRequests.get(i);
+            results.add(new BulkScanResult(i, scanRequest != null ? scanRequest.getBookingNumber() : null));
+        }
+
+        ScanImage[] images = new ScanImage[scanRequests.size()];
+        try {
+            normalizeImages(scanRequests, images, results);
+
+            ShipmentEvent[] recorded = new ShipmentEvent[scanRequests.size()];
+            new TransactionTemplate(transactionManager).executeWithoutResult(
+                    status -> applyScans(scanRequests, username, images, results, recorded));
+
+            // Each release runs in its own transaction, the scan itself is already committed
+            for (int i = 0; i < recorded.length; i++) {
+                if (recorded[i] != null) {
+                    try {
+                        handleSpecialScanEvents(recorded[i].getBooking(), recorded[i].getEventType());
+                    } catch (RuntimeException e) {
+                        results.get(i).setError("Scan recorded but the driver was not released: " + e.getMessage());
+                    }
+                }
+            }
+        } finally {
+            for (ScanImage image : images) {
+                if (image != null) {
+                    image.close();
+                }
+            }
+        }
+        return results;
+    }
+
+    // Ingests every photo and renders them in parallel on the normalization pool; a photo that fails fails its scan
+    private void normalizeImages(List<ScanRequest> scanRequests, ScanImage[] images, List<BulkScanResult> results) {
+        List<CompletableFuture<ImageNormalizationService.Renditions>> pending = new ArrayList<>(scanRequests.size());
+        for (int i = 0; i < scanRequests.size(); i++) {
+            ScanRequest scanRequest = scanRequests.get(i);
+            CompletableFuture<ImageNormalizationService.Renditions> renditions = null;
+            if (scanRequest != null && scanRequest.getImageBase64() != null
+                    && !scanRequest.getImageBase64().trim().isEmpty()) {
+                try {
+                    images[i] = new ScanImage(imageIngestService.ingestBase64(scanRequest.getImageBase64(), null));
+                    renditions = imageNormalizationService.normalize(images[i].original);
+                } catch (IOException | RuntimeException e) {
+                    results.get(i).setError("Failed to store scan image: " + e.getMessage());
+                }
+            }
+            pending.add(renditions);
+        }
+        for (int i = 0; i < pending.size(); i++) {
+            if (pending.get(i) != null) {
+                try {
+                    images[i].renditions = pending.get(i).join();
+                } catch (CompletionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    results.get(i).setError("Failed to store scan image: " + cause.getMessage());
+                }
+            }
+        }
+    }
+
+    private void applyScans(List<ScanRequest> scanRequests, String username, ScanImage[] images,
+                            List<BulkScanResult> results, ShipmentEvent[] recorded) {
+        User scannedBy = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found: " + username));
+        boolean canScanAnyBooking = canScanAnyBooking(scannedBy);
+        Long driverId = canScanAnyBooking ? null
+                : driverRepository.findByUser(scannedBy).map(Driver::getId).orElse(null);
+
+        Set<String> bookingNumbers = new HashSet<>();
+        for (ScanRequest scanRequest : scanRequests) {
+            if (scanRequest != null && scanRequest.getBookingNumber() != null) {
+                bookingNumbers.add(scanRequest.getBookingNumber());
+            }
+        }
+        Map<String, Booking> bookings = new HashMap<>();
+        for (Booking booking : bookingRepository.findByBookingNumberIn(bookingNumbers)) {
+            // Written back with JDBC below, so the persistence context must not flush its own update
+            entityManager.detach(booking);
+            bookings.put(booking.getBookingNumber(), booking);
+        }
+
+        // Kept at the column precision, so a booking update can be recognized by its timestamp
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<Integer> applied = new ArrayList<>();
+        Map<Long, Booking> changedBookings = new LinkedHashMap<>();
+        for (int i = 0; i < scanRequests.size(); i++) {
+            BulkScanResult result = results.get(i);
+            if (result.getError() != null) {
+                continue;
+            }
+            try {
+                ShipmentEvent event = applyScan(scanRequests.get(i), bookings, scannedBy, canScanAnyBooking, driverId,
+                        changedBookings, now);
+                recorded[i] = event;
+                applied.add(i);
+                result.setEventType(event.getEventType().name());
+                result.setCurrentStatus(event.getBooking().getStatus().name());
+            } catch (RuntimeException e) {
+                result.setError(e.getMessage());
+            }
+        }
+
+        // Scans of a booking that changed since it was read are dropped, the same way a JPA save would fail
+        Set<Long> staleBookings = updateBookings(changedBookings.values(), now);
+        List<ShipmentEvent> freshEvents = new ArrayList<>(applied.size());
+        List<BulkScanResult> freshResults = new ArrayList<>(applied.size());
+        for (int i : applied) {
+            BulkScanResult result = results.get(i);
+            if (staleBookings.contains(recorded[i].getBooking().getId())) {
+                recorded[i] = null;
+                result.setEventType(null);
+                result.setCurrentStatus(null);
+                result.setError("Booking was updated by another scan, retry: " + result.getBookingNumber());
+            } else {
+                // Only photos of scans that are kept reach the image store
+                if (images[i] != null) {
+                    try {
+                        recorded[i].setImageUrl(imageStoreService.urlOf(
+                                imageStoreService.store(images[i].renditions.storage())));
+                    } catch (IOException e) {
+                        result.setError("Scan recorded without its image: " + e.getMessage());
+                    }
+                }
+                freshEvents.add(recorded[i]);
+                freshResults.add(result);
+            }
+        }
+
+        List<Long> eventIds = insertEvents(freshEvents);
+        for (int i = 0; i < eventIds.size(); i++) {
+            freshResults.get(i).setEventId(eventIds.get(i));
+        }
+    }
+
+    private ShipmentEvent applyScan(ScanRequest scanRequest, Map<String, Booking> bookings, User scannedBy,
+                                    boolean canScanAnyBooking, Long driverId, Map<Long, Booking> changedBookings,
+                                    LocalDateTime now) {
+        if (scanRequest == null || scanRequest.getBookingNumber() == null || scanRequest.getScanType() == null) {
+            throw new RuntimeException("Booking number and scan type are required");
+        }
+        Booking booking = bookings.get(scanRequest.getBookingNumber());
+        if (booking == null) {
+            throw new RuntimeException("Booking not found: " + scanRequest.getBookingNumber());
+        }
+        // Compared by id, which a lazy driver reference knows without being loaded
+        boolean isAssignedDriver = booking.getDriver() != null && booking.getDriver().getId().equals(driverId);
+        if (!canScanAnyBooking && !isAssignedDriver) {
+            throw new RuntimeException("You don't have permission to scan this booking");
+        }
+
+        ShipmentEvent.EventType eventType;
+        try {
+            eventType = ShipmentEvent.EventType.valueOf(scanRequest.getScanType());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Unknown scan type: " + scanRequest.getScanType());
+        }
+
+        ShipmentEvent event = new ShipmentEvent(booking, eventType, generateEventDescription(eventType, scanRequest));
+        event.setEventTimestamp(now);
+        event.setLocation(scanRequest.getLocation());
+        event.setLatitude(scanRequest.getLatitude());
+        event.setLongitude(scanRequest.getLongitude());
+        event.setAdditionalNotes(scanRequest.getNotes());
+        event.setCreatedBy(scannedBy);
+        event.setCreatedAt(now);
+        event.setUpdatedAt(now);
+
+        Booking.BookingStatus status = booking.getStatus();
+        LocalDateTime pickupTime = booking.getActualPickupTime();
+        LocalDateTime deliveryTime = booking.getActualDeliveryTime();
+        updateBookingStatus(booking, eventType);
+        if (booking.getStatus() != status || !Objects.equals(booking.getActualPickupTime(), pickupTime)
+                || !Objects.equals(booking.getActualDeliveryTime(), deliveryTime)) {
+            changedBookings.put(booking.getId(), booking);
+        }
+        return event;
+    }
+
+    // Returns the ids of bookings whose version no longer matched
+    private Set<Long> updateBookings(Iterable<Booking> bookings, LocalDateTime now) {
+        List<Booking> updated = new ArrayList<>();
+        List<Object[]> args = new ArrayList<>();
+        for (Booking booking : bookings) {
+            updated.add(booking);
+            args.add(new Object[] {booking.getStatus().name(), booking.getActualPickupTime(),
+                    booking.getActualDeliveryTime(), now, booking.getId(), booking.getVersion()});
+        }
+
+        Set<Long> stale = new HashSet<>();
+        Map<Long, Long> unknown = new HashMap<>();
+        int row = 0;
+        for (int[] counts : jdbcTemplate.batchUpdate(UPDATE_BOOKING_SQL, args, jdbcBatchSize,
+                (statement, arg) -> new ArgumentPreparedStatementSetter(arg).setValues(statement))) {
+            for (int count : counts) {
+                Booking booking = updated.get(row++);
+                if (count == 0) {
+                    stale.add(booking.getId());
+                } else if (count != 1) {
+                    // Drivers that cannot report per-statement counts return SUCCESS_NO_INFO instead
+                    unknown.put(booking.getId(), booking.getVersion());
+                }
+            }
+        }
+        if (!unknown.isEmpty()) {
+            stale.addAll(findNotUpdated(unknown, now));
+        }
+        return stale;
+    }
+
+    // Reads back bookings whose update count is unknown; one updated here carries the next version and our timestamp
+    private Set<Long> findNotUpdated(Map<Long, Long> versions, LocalDateTime now) {
+        Set<Long> notUpdated = new HashSet<>(versions.keySet());
+        List<Long> ids = new ArrayList<>(versions.keySet());
+        for (int from = 0; from < ids.size(); from += jdbcBatchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + jdbcBatchSize));
+            String sql = String.format(SELECT_BOOKING_VERSIONS_SQL, String.join(", ", Collections.nCopies(chunk.size(), "?")));
+            jdbcTemplate.query(sql, resultSet -> {
+                long id = resultSet.getLong("id");
+                if (resultSet.getLong("version") == versions.get(id) + 1
+                        && now.equals(resultSet.getObject("updated_at", LocalDateTime.class))) {
+                    notUpdated.remove(id);
+                }
+            }, chunk.toArray());
+        }
+        return notUpdated;
+    }
+
+    // Returns the generated event ids in order
+    private List<Long> insertEvents(List<ShipmentEvent> events) {
+        List<Long> ids = new ArrayList<>(events.size());
+        for (int from = 0; from < events.size(); from += jdbcBatchSize) {
+            List<ShipmentEvent> chunk = events.subList(from, Math.min(events.size(), from + jdbcBatchSize));
+            GeneratedKeyHolder keys = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_EVENT_SQL, new String[] {"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement statement, int i) throws SQLException {
+                            ShipmentEvent event = chunk.get(i);
+                            new ArgumentPreparedStatementSetter(new Object[] {event.getBooking().getId(),
+                                    event.getEventType().name(), event.getDescription(), event.getEventTimestamp(),
+                                    event.getLocation(), event.getLatitude(), event.getLongitude(),
+                                    event.getCreatedBy().getId(), event.getAdditionalNotes(), event.getImageUrl(),
+                                    event.getCreatedAt(), event.getUpdatedAt()}).setValues(statement);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return chunk.size();
+                        }
+                    }, keys);
+            for (Map<String, Object> key : keys.getKeyList()) {
+                ids.add(((Number) key.values().iterator().next()).longValue());
+            }
+        }
+        return ids;
+    }
+
+    // Proof-of-delivery photos are kept at the normalized storage size, not as uploaded
+    private String storeImage(String imageBase64) {
+        try (ItemImage image = imageIngestService.ingestBase64(imageBase64, null);
+             ImageNormalizationService.Renditions renditions = imageNormalizationService.normalize(image).join()) {
+            return imageStoreService.urlOf(imageStoreService.store(renditions.storage()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store scan image", e);
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
     private String generateEventDescription(ShipmentEvent.EventType eventType, ScanRequest scanRequest) {
         return switch (eventType) {
             case PICKUP_COMPLETED -> "Package picked up from " + (scanRequest.getLocation() != null ? scanRequest.getLocation() : "pickup location");
@@ -159,10 +510,30 @@ public class ScanService {
         boolean isAssignedDriver = booking.getDriver() != null && 
                                   booking.getDriver().getUser().getId().equals(user.getId());
         
-        boolean hasAdminRole = user.getRoles().stream()
+        return isAssignedDriver || canScanAnyBooking(user);
+    }
+
+    private boolean canScanAnyBooking(User user) {
+        return user.getRoles().stream()
                 .anyMatch(role -> role.getName().name().equals("ROLE_ADMIN") || 
                                 role.getName().name().equals("ROLE_HUB_MANAGER"));
+    }
+
+    // A scan photo as uploaded and its renditions; closing deletes both
+    private static final class ScanImage implements AutoCloseable {
+        private final ItemImage original;
+        private ImageNormalizationService.Renditions renditions;
+
+        private ScanImage(ItemImage original) {
+            this.original = original;
+        }
 
-        return isAssignedDriver || hasAdminRole;
+        @Override
+        public void close() {
+            if (renditions != null) {
+                renditions.close();
+            }
+            original.close();
+        }
     }
 }
@@ -0,0 +1,44 @@
+package com.dwelzy.dwelzy.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic offline analyzer for development and tests. It classifies on the byte size of the
+ * original upload (ItemImage.getSourceSize), not of the normalized rendition it is handed.
+ */
+@Component
+@ConditionalOnProperty(name = "dwelzy.app.itemAnalyzer", havingValue = "stub", matchIfMissing = true)
+public class StubItemAnalyzer implements ItemAnalyzer {
+
+    private static final double CONFIDENCE = 0.85;
+
+    @Override
+    public List<Classification> analyze(List<ItemImage> images) {
+        List<Classification> results = new ArrayList<>(images.size());
+        for (ItemImage image : images) {
+            results.add(new Classification(classify(image.getSourceSize()), CONFIDENCE));
+        }
+        return results;
+    }
+
+    private String classify(long imageBytes) {
+        // Thresholds on the base64 length of the upload, as the original JSON API measured it
+        long imageSize = 4 * ((imageBytes + 2) / 3);
+
+        if (imageSize < 1000) {
+            return "documents";
+        } else if (imageSize < 5000) {
+            return "electronics";
+        } else if (imageSize < 10000) {
+            return "fragile";
+        } else if (imageSize < 20000) {
+            return "food";
+        } else {
+            return "general";
+        }
+    }
+}
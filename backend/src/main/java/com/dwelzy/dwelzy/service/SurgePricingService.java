@@ -0,0 +1,157 @@
+package com.dwelzy.dwelzy.service;
+
+import com.dwelzy.dwelzy.entity.Booking;
+import com.dwelzy.dwelzy.entity.Driver;
+import com.dwelzy.dwelzy.repository.BookingRepository;
+import com.dwelzy.dwelzy.repository.DriverRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.dwelzy.dwelzy.util.TransactionCallbacks.afterCommit;
+
+/**
+ * Live per-hub supply and demand for surge pricing. Demand is the number of confirmed bookings
+ * still waiting for a driver, supply the number of available verified drivers. Counters are moved
+ * by the booking and assignment services as state changes commit; a short tick turns them into a
+ * demand ratio table that pricing reads without locking. A slow resync from the database corrects
+ * drift from changes made elsewhere (driver registration, scans, direct edits).
+ */
+@Service
+public class SurgePricingService {
+
+    // Counter key for bookings without a pickup hub and drivers without a hub
+    private static final long NO_HUB = -1;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    private final Map<Long, HubLoad> loads = new ConcurrentHashMap<>();
+
+    // Demand per available driver in 1/1000, per hub, replaced as a whole on every tick
+    private volatile Map<Long, Integer> demandRatios = Map.of();
+
+    /**
+     * Demand per available driver at the hub in 1/1000, 0 when unknown
+     */
+    public int getDemandRatioPermille(Long hubId) {
+        if (hubId == null) {
+            return 0;
+        }
+        Integer ratio = demandRatios.get(hubId);
+        return ratio != null ? ratio : 0;
+    }
+
+    /**
+     * Whether the booking counts as demand: confirmed and still without a driver
+     */
+    public static boolean isWaiting(Booking booking) {
+        return booking.getStatus() == Booking.BookingStatus.CONFIRMED && booking.getDriver() == null;
+    }
+
+    /**
+     * Whether the driver counts as supply: available and verified
+     */
+    public static boolean isAvailable(Driver driver) {
+        return driver.getStatus() == Driver.DriverStatus.AVAILABLE && Boolean.TRUE.equals(driver.getIsVerified());
+    }
+
+    /**
+     * Move a booking's demand once the current transaction commits
+     */
+    public void onBookingChanged(Long oldPickupHubId, boolean wasWaiting, Long pickupHubId, boolean waiting) {
+        if (wasWaiting == waiting && Objects.equals(oldPickupHubId, pickupHubId)) {
+            return;
+        }
+        afterCommit(() -> {
+            if (wasWaiting) {
+                load(oldPickupHubId).demand.decrement();
+            }
+            if (waiting) {
+                load(pickupHubId).demand.increment();
+            }
+        });
+    }
+
+    /**
+     * Move a driver's supply once the current transaction commits
+     */
+    public void onDriverChanged(Long oldHubId, boolean wasAvailable, Long hubId, boolean available) {
+        if (wasAvailable == available && Objects.equals(oldHubId, hubId)) {
+            return;
+        }
+        afterCommit(() -> {
+            if (wasAvailable) {
+                load(oldHubId).supply.decrement();
+            }
+            if (available) {
+                load(hubId).supply.increment();
+            }
+        });
+    }
+
+    /**
+     * Recompute the demand ratio table from the counters
+     */
+    @Scheduled(fixedRateString = "${dwelzy.app.surgeTickMs:5000}")
+    public void tick() {
+        Map<Long, Integer> ratios = new HashMap<>();
+        loads.forEach((hubId, load) -> {
+            long demand = load.demand.sum();
+            if (hubId != NO_HUB && demand > 0) {
+                long supply = Math.max(1, load.supply.sum());
+                ratios.put(hubId, (int) Math.min(Integer.MAX_VALUE, demand * 1000 / supply));
+            }
+        });
+        demandRatios = Map.copyOf(ratios);
+    }
+
+    /**
+     * Reset the counters from the database, also seeds them at startup
+     */
+    @Scheduled(fixedRateString = "${dwelzy.app.surgeResyncMs:600000}")
+    @Transactional(readOnly = true)
+    public void resync() {
+        Map<Long, long[]> counts = new HashMap<>();
+        for (Object[] row : bookingRepository.countUnassignedBookingsByPickupHub(Booking.BookingStatus.CONFIRMED)) {
+            counts.computeIfAbsent(key((Long) row[0]), k -> new long[2])[0] = (Long) row[1];
+        }
+        for (Object[] row : driverRepository.countAvailableVerifiedDriversByHub()) {
+            counts.computeIfAbsent(key((Long) row[0]), k -> new long[2])[1] = (Long) row[1];
+        }
+
+        // Changes committed while the counts were read may be lost or doubled until the next resync
+        loads.keySet().retainAll(counts.keySet());
+        counts.forEach((hubId, count) -> {
+            HubLoad load = loads.computeIfAbsent(hubId, k -> new HubLoad());
+            load.demand.reset();
+            load.demand.add(count[0]);
+            load.supply.reset();
+            load.supply.add(count[1]);
+        });
+        tick();
+    }
+
+    private HubLoad load(Long hubId) {
+        return loads.computeIfAbsent(key(hubId), k -> new HubLoad());
+    }
+
+    private static long key(Long hubId) {
+        return hubId != null ? hubId : NO_HUB;
+    }
+
+    private static final class HubLoad {
+        private final LongAdder demand = new LongAdder();
+        private final LongAdder supply = new LongAdder();
+    }
+}
@@ -0,0 +1,138 @@
+package com.dwelzy.dwelzy.service;
+
+import com.dwelzy.dwelzy.util.ZoneIndex;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pricing and service zones loaded from a GeoJSON FeatureCollection of Polygon and MultiPolygon
+ * features. Each feature has an id (property or feature id), an optional priority deciding which
+ * of overlapping zones applies, and an optional serviceable flag marking no-service areas.
+ * The file is checked periodically and a changed one is indexed and swapped in atomically.
+ */
+@Service
+public class ZoneService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ZoneService.class);
+
+    @Value("${dwelzy.app.zonesLocation:classpath:zones.geojson}")
+    private String zonesLocation;
+
+    @Value("${dwelzy.app.zoneIndexCellDegrees:0.01}")
+    private double cellDegrees;
+
+    private final ResourceLoader resourceLoader = new DefaultResourceLoader();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private volatile ZoneIndex zoneIndex;
+    private long zonesLastModified;
+
+    @PostConstruct
+    void init() {
+        loadZones();
+    }
+
+    /**
+     * Load the zones file, failing when it cannot be read or parsed
+     */
+    public synchronized void loadZones() {
+        Resource resource = resourceLoader.getResource(zonesLocation);
+        try (InputStream input = resource.getInputStream()) {
+            long lastModified = lastModified(resource);
+            zoneIndex = new ZoneIndex(parseZones(objectMapper.readTree(input)), cellDegrees);
+            zonesLastModified = lastModified;
+            logger.info("Loaded {} zones from {}", zoneIndex.size(), zonesLocation);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new RuntimeException("Error loading zones from " + zonesLocation + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reload the zones file when it changed, keeping the current zones if the new file is invalid
+     */
+    @Scheduled(fixedDelayString = "${dwelzy.app.zonesReloadMs:30000}")
+    public synchronized void reloadZonesIfChanged() {
+        long lastModified = lastModified(resourceLoader.getResource(zonesLocation));
+        if (lastModified == zonesLastModified) {
+            return;
+        }
+        try {
+            loadZones();
+        } catch (RuntimeException e) {
+            zonesLastModified = lastModified;
+            logger.error("Keeping current zones: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * The zone containing the point, null outside of every zone
+     */
+    public ZoneIndex.Zone findZone(double latitude, double longitude) {
+        return zoneIndex.find(latitude, longitude);
+    }
+
+    private static List<ZoneIndex.Zone> parseZones(JsonNode collection) {
+        if (!"FeatureCollection".equals(collection.path("type").asText())) {
+            throw new IllegalArgumentException("Expected a GeoJSON FeatureCollection");
+        }
+
+        List<ZoneIndex.Zone> zones = new ArrayList<>();
+        for (JsonNode feature : collection.path("features")) {
+            JsonNode properties = feature.path("properties");
+            String id = properties.path("id").asText(feature.path("id").asText(null));
+            if (id == null || id.isEmpty()) {
+                throw new IllegalArgumentException("Zone feature without an id");
+            }
+
+            JsonNode geometry = feature.path("geometry");
+            List<double[]> rings = new ArrayList<>();
+            switch (geometry.path("type").asText()) {
+                case "Polygon" -> addRings(geometry.path("coordinates"), rings);
+                case "MultiPolygon" -> geometry.path("coordinates").forEach(polygon -> addRings(polygon, rings));
+                default -> throw new IllegalArgumentException("Zone " + id + " is not a Polygon or MultiPolygon");
+            }
+
+            zones.add(new ZoneIndex.Zone(id, properties.path("priority").asInt(0),
+                                         properties.path("serviceable").asBoolean(true), rings));
+        }
+        return zones;
+    }
+
+    private static void addRings(JsonNode polygon, List<double[]> rings) {
+        for (JsonNode ring : polygon) {
+            double[] points = new double[ring.size() * 2];
+            for (int i = 0; i < ring.size(); i++) {
+                JsonNode point = ring.get(i);
+                if (!point.path(0).isNumber() || !point.path(1).isNumber()) {
+                    throw new IllegalArgumentException("Invalid zone coordinate: " + point);
+                }
+                points[2 * i] = point.get(0).asDouble();
+                points[2 * i + 1] = point.get(1).asDouble();
+            }
+            rings.add(points);
+        }
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            // Not a file, e.g. a classpath entry inside the jar: treat as never changing
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.dwelzy.dwelzy.util;
+
+import java.util.Arrays;
+
+/**
+ * Solves the rectangular assignment problem (Hungarian algorithm, O(n^2 * m)).
+ */
+public final class AssignmentSolver {
+
+    public static final int UNASSIGNED = -1;
+
+    private AssignmentSolver() {}
+
+    /**
+     * Find the assignment of rows to columns with the minimum total cost.
+     * Each row gets at most one column and each column at most one row.
+     *
+     * @param cost cost[row][column], all rows must have the same length
+     * @return for each row the assigned column, or {@link #UNASSIGNED}
+     */
+    public static int[] minimize(double[][] cost) {
+        int rows = cost.length;
+        if (rows == 0) {
+            return new int[0];
+        }
+        int cols = cost[0].length;
+        if (cols == 0) {
+            int[] none = new int[rows];
+            Arrays.fill(none, UNASSIGNED);
+            return none;
+        }
+
+        // The algorithm below needs rows <= columns, so solve the transpose otherwise
+        if (rows > cols) {
+            double[][] transposed = new double[cols][rows];
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    transposed[j][i] = cost[i][j];
+                }
+            }
+            int[] columnToRow = solve(transposed);
+            int[] rowToColumn = new int[rows];
+            Arrays.fill(rowToColumn, UNASSIGNED);
+            for (int j = 0; j < cols; j++) {
+                rowToColumn[columnToRow[j]] = j;
+            }
+            return rowToColumn;
+        }
+
+        return solve(cost);
+    }
+
+    /**
+     * Find the assignment with the maximum total score.
+     */
+    public static int[] maximize(double[][] score) {
+        double[][] cost = new double[score.length][];
+        for (int i = 0; i < score.length; i++) {
+            cost[i] = new double[score[i].length];
+            for (int j = 0; j < score[i].length; j++) {
+                cost[i][j] = -score[i][j];
+            }
+        }
+        return minimize(cost);
+    }
+
+    /**
+     * Potentials-based Hungarian algorithm, requires rows <= columns.
+     * Every row is assigned to a distinct column.
+     */
+    private static int[] solve(double[][] cost) {
+        int n = cost.length;
+        int m = cost[0].length;
+
+        // 1-based arrays, index 0 is the virtual starting column
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] columnOwner = new int[m + 1];
+        int[] way = new int[m + 1];
+        double[] minSlack = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+
+        for (int i = 1; i <= n; i++) {
+            columnOwner[0] = i;
+            int j0 = 0;
+            Arrays.fill(minSlack, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+
+            do {
+                used[j0] = true;
+                int i0 = columnOwner[j0];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+
+                for (int j = 1; j <= m; j++) {
+                    if (!used[j]) {
+                        double slack = cost[i0 - 1][j - 1] - u[i0] - v[j];
+                        if (slack < minSlack[j]) {
+                            minSlack[j] = slack;
+                            way[j] = j0;
+                        }
+                        if (minSlack[j] < delta) {
+                            delta = minSlack[j];
+                            j1 = j;
+                        }
+                    }
+                }
+
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[columnOwner[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minSlack[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (columnOwner[j0] != 0);
+
+            // Walk the augmenting path back to the start
+            do {
+                int j1 = way[j0];
+                columnOwner[j0] = columnOwner[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        int[] rowToColumn = new int[n];
+        Arrays.fill(rowToColumn, UNASSIGNED);
+        for (int j = 1; j <= m; j++) {
+            if (columnOwner[j] != 0) {
+                rowToColumn[columnOwner[j] - 1] = j - 1;
+            }
+        }
+        return rowToColumn;
+    }
+}
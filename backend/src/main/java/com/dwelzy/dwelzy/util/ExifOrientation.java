@@ -0,0 +1,111 @@
+package com.dwelzy.dwelzy.util;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the EXIF orientation of a JPEG and applies it to the pixels. Re-encoding drops the
+ * metadata, so without this phone photos taken sideways would be stored sideways.
+ */
+public final class ExifOrientation {
+
+    public static final int NORMAL = 1;
+
+    // EXIF lives in an APP1 segment near the start of the file
+    private static final int HEADER_BYTES = 128 * 1024;
+    private static final int ORIENTATION_TAG = 0x0112;
+
+    private ExifOrientation() {}
+
+    /**
+     * Orientation 1-8 from the file's EXIF block, NORMAL when absent or not a JPEG
+     */
+    public static int read(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = ByteBuffer.allocate((int) Math.min(channel.size(), HEADER_BYTES));
+            while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                // Fill the header
+            }
+        }
+        buffer.flip();
+        try {
+            return parse(buffer);
+        } catch (RuntimeException e) {
+            // Truncated or malformed EXIF
+            return NORMAL;
+        }
+    }
+
+    private static int parse(ByteBuffer jpeg) {
+        if (jpeg.remaining() < 4 || (jpeg.getShort(0) & 0xFFFF) != 0xFFD8) {
+            return NORMAL;
+        }
+        int position = 2;
+        while (position + 4 <= jpeg.limit()) {
+            int marker = jpeg.getShort(position) & 0xFFFF;
+            int length = jpeg.getShort(position + 2) & 0xFFFF;
+            if (marker == 0xFFE1 && jpeg.getInt(position + 4) == 0x45786966) {
+                // "Exif\0\0", then a TIFF header whose byte order applies to everything after it
+                int tiff = position + 10;
+                ByteBuffer exif = jpeg.duplicate().order(
+                        jpeg.getShort(tiff) == 0x4949 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+                int ifd = tiff + exif.getInt(tiff + 4);
+                int entries = exif.getShort(ifd) & 0xFFFF;
+                for (int i = 0; i < entries; i++) {
+                    int entry = ifd + 2 + i * 12;
+                    if ((exif.getShort(entry) & 0xFFFF) == ORIENTATION_TAG) {
+                        int orientation = exif.getShort(entry + 8) & 0xFFFF;
+                        return orientation >= 1 && orientation <= 8 ? orientation : NORMAL;
+                    }
+                }
+                return NORMAL;
+            }
+            if (marker == 0xFFDA || (marker & 0xFF00) != 0xFF00) {
+                // Start of image data, metadata segments are over
+                return NORMAL;
+            }
+            position += 2 + length;
+        }
+        return NORMAL;
+    }
+
+    /**
+     * Rotate and mirror the image so it displays upright without the orientation tag
+     */
+    public static BufferedImage apply(BufferedImage image, int orientation) {
+        if (orientation <= NORMAL || orientation > 8) {
+            return image;
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        boolean swap = orientation >= 5;
+        AffineTransform transform = new AffineTransform();
+        switch (orientation) {
+            case 2 -> { transform.translate(width, 0); transform.scale(-1, 1); }
+            case 3 -> { transform.translate(width, height); transform.rotate(Math.PI); }
+            case 4 -> { transform.translate(0, height); transform.scale(1, -1); }
+            case 5 -> { transform.rotate(Math.PI / 2); transform.scale(1, -1); }
+            case 6 -> { transform.translate(height, 0); transform.rotate(Math.PI / 2); }
+            case 7 -> { transform.scale(-1, 1); transform.translate(-height, width); transform.rotate(3 * Math.PI / 2); }
+            case 8 -> { transform.translate(0, width); transform.rotate(3 * Math.PI / 2); }
+            default -> { }
+        }
+        BufferedImage result = new BufferedImage(swap ? height : width, swap ? width : height,
+                image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = result.createGraphics();
+        try {
+            graphics.drawImage(image, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return result;
+    }
+}
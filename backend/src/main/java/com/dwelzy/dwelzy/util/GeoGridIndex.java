@@ -0,0 +1,255 @@
+package com.dwelzy.dwelzy.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thread-safe in-memory index of points on a uniform latitude/longitude grid.
+ * Supports k-nearest and radius queries by searching the cells around the query point.
+ */
+public class GeoGridIndex<K> {
+
+    private final double cellDegrees;
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+    private final Map<Long, List<Entry<K>>> cells = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public GeoGridIndex(double cellDegrees) {
+        if (cellDegrees <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellDegrees);
+        }
+        this.cellDegrees = cellDegrees;
+    }
+
+    /**
+     * Add a point or move it to a new location
+     */
+    public void put(K key, double latitude, double longitude) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(key);
+            Entry<K> entry = new Entry<>(key, latitude, longitude, cellKey(latitude, longitude));
+            entries.put(key, entry);
+            cells.computeIfAbsent(entry.cell, c -> new ArrayList<>()).add(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(K key) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Atomically replace the whole content of the index
+     */
+    public void replaceAll(Map<K, double[]> locations) {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            cells.clear();
+            locations.forEach((key, location) -> {
+                Entry<K> entry = new Entry<>(key, location[0], location[1], cellKey(location[0], location[1]));
+                entries.put(key, entry);
+                cells.computeIfAbsent(entry.cell, c -> new ArrayList<>()).add(entry);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(K key) {
+        lock.readLock().lock();
+        try {
+            return entries.containsKey(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find up to k keys closest to the given location, nearest first
+     */
+    public List<K> nearest(double latitude, double longitude, int k) {
+        if (k <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (entries.isEmpty()) {
+                return List.of();
+            }
+
+            int centerLat = cellIndex(latitude);
+            int centerLon = cellIndex(longitude);
+            List<Match<K>> found = new ArrayList<>();
+
+            for (int ring = 0; ; ring++) {
+                // Sparse data: scanning the occupied cells is cheaper than walking empty rings
+                if (8L * ring > cells.size()) {
+                    return toKeys(scanAll(latitude, longitude, Double.POSITIVE_INFINITY), k);
+                }
+
+                collectRing(centerLat, centerLon, ring, latitude, longitude, found);
+                if (found.size() == entries.size()) {
+                    return toKeys(found, k);
+                }
+                if (found.size() >= k) {
+                    found.sort(Comparator.comparingDouble(Match::distanceKm));
+                    // Every point outside the searched square is at least this far away
+                    if (found.get(k - 1).distanceKm() <= minDistanceOutsideRing(latitude, ring)) {
+                        return toKeys(found, k);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find all keys within the radius of the given location, nearest first
+     */
+    public List<K> withinRadius(double latitude, double longitude, double radiusKm) {
+        lock.readLock().lock();
+        try {
+            double latSpan = GeoMath.latitudeSpanDegrees(radiusKm);
+            double lonSpan = GeoMath.longitudeSpanDegrees(latitude, radiusKm);
+
+            int minLat = cellIndex(latitude - latSpan);
+            int maxLat = cellIndex(latitude + latSpan);
+            int minLon = cellIndex(longitude - lonSpan);
+            int maxLon = cellIndex(longitude + lonSpan);
+
+            long cellCount = (long) (maxLat - minLat + 1) * (maxLon - minLon + 1);
+            List<Match<K>> found;
+            if (cellCount > cells.size()) {
+                found = scanAll(latitude, longitude, radiusKm);
+            } else {
+                found = new ArrayList<>();
+                for (int latCell = minLat; latCell <= maxLat; latCell++) {
+                    for (int lonCell = minLon; lonCell <= maxLon; lonCell++) {
+                        collectCell(cellKey(latCell, lonCell), latitude, longitude, radiusKm, found);
+                    }
+                }
+            }
+            return toKeys(found, Integer.MAX_VALUE);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeEntry(K key) {
+        Entry<K> existing = entries.remove(key);
+        if (existing != null) {
+            List<Entry<K>> cell = cells.get(existing.cell);
+            cell.remove(existing);
+            if (cell.isEmpty()) {
+                cells.remove(existing.cell);
+            }
+        }
+    }
+
+    private void collectRing(int centerLat, int centerLon, int ring, double latitude, double longitude,
+                             List<Match<K>> found) {
+        if (ring == 0) {
+            collectCell(cellKey(centerLat, centerLon), latitude, longitude, Double.POSITIVE_INFINITY, found);
+            return;
+        }
+        for (int d = -ring; d <= ring; d++) {
+            collectCell(cellKey(centerLat - ring, centerLon + d), latitude, longitude, Double.POSITIVE_INFINITY, found);
+            collectCell(cellKey(centerLat + ring, centerLon + d), latitude, longitude, Double.POSITIVE_INFINITY, found);
+        }
+        for (int d = -ring + 1; d <= ring - 1; d++) {
+            collectCell(cellKey(centerLat + d, centerLon - ring), latitude, longitude, Double.POSITIVE_INFINITY, found);
+            collectCell(cellKey(centerLat + d, centerLon + ring), latitude, longitude, Double.POSITIVE_INFINITY, found);
+        }
+    }
+
+    private void collectCell(long cell, double latitude, double longitude, double radiusKm, List<Match<K>> found) {
+        List<Entry<K>> cellEntries = cells.get(cell);
+        if (cellEntries == null) {
+            return;
+        }
+        for (Entry<K> entry : cellEntries) {
+            double distance = GeoMath.distanceKm(latitude, longitude, entry.latitude, entry.longitude);
+            if (distance <= radiusKm) {
+                found.add(new Match<>(entry.key, distance));
+            }
+        }
+    }
+
+    private List<Match<K>> scanAll(double latitude, double longitude, double radiusKm) {
+        List<Match<K>> found = new ArrayList<>();
+        for (Entry<K> entry : entries.values()) {
+            double distance = GeoMath.distanceKm(latitude, longitude, entry.latitude, entry.longitude);
+            if (distance <= radiusKm) {
+                found.add(new Match<>(entry.key, distance));
+            }
+        }
+        return found;
+    }
+
+    private double minDistanceOutsideRing(double latitude, int ring) {
+        double spanDegrees = ring * cellDegrees;
+        double cosLat = Math.cos(Math.toRadians(Math.min(90, Math.abs(latitude) + spanDegrees + cellDegrees)));
+        return spanDegrees * GeoMath.KM_PER_DEGREE * Math.max(0, cosLat);
+    }
+
+    private List<K> toKeys(List<Match<K>> found, int limit) {
+        found.sort(Comparator.comparingDouble(Match::distanceKm));
+        List<K> keys = new ArrayList<>(Math.min(limit, found.size()));
+        for (int i = 0; i < found.size() && i < limit; i++) {
+            keys.add(found.get(i).key());
+        }
+        return keys;
+    }
+
+    private int cellIndex(double degrees) {
+        return (int) Math.floor(degrees / cellDegrees);
+    }
+
+    private long cellKey(double latitude, double longitude) {
+        return cellKey(cellIndex(latitude), cellIndex(longitude));
+    }
+
+    private static long cellKey(int latCell, int lonCell) {
+        return ((long) latCell << 32) | (lonCell & 0xFFFFFFFFL);
+    }
+
+    private static final class Entry<K> {
+        private final K key;
+        private final double latitude;
+        private final double longitude;
+        private final long cell;
+
+        private Entry(K key, double latitude, double longitude, long cell) {
+            this.key = key;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.cell = cell;
+        }
+    }
+
+    private record Match<K>(K key, double distanceKm) {}
+}
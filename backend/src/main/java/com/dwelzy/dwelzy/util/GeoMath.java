@@ -0,0 +1,111 @@
+package com.dwelzy.dwelzy.util;
+
+/**
+ * Great-circle distance helpers working on primitive doubles.
+ * Methods taking radians are the allocation-free core; the degree variants are for one-off calls.
+ */
+public final class GeoMath {
+
+    public static final double EARTH_RADIUS_KM = 6371;
+    public static final double KM_PER_DEGREE = Math.toRadians(1) * EARTH_RADIUS_KM;
+
+    private GeoMath() {}
+
+    /**
+     * Haversine distance in km between two points given in degrees
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        return haversineKm(Math.toRadians(lat1), Math.toRadians(lon1), Math.toRadians(lat2), Math.toRadians(lon2));
+    }
+
+    /**
+     * Haversine distance in km between two points given in radians
+     */
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        return haversineKm(lat1, lon1, Math.cos(lat1), lat2, lon2, Math.cos(lat2));
+    }
+
+    /**
+     * Haversine distance in km between two points given in radians, with the cosines of their latitudes
+     * precomputed by the caller
+     */
+    public static double haversineKm(double lat1, double lon1, double cosLat1, double lat2, double lon2, double cosLat2) {
+        double sinLat = Math.sin((lat2 - lat1) / 2);
+        double sinLon = Math.sin((lon2 - lon1) / 2);
+        double a = sinLat * sinLat + cosLat1 * cosLat2 * sinLon * sinLon;
+        return EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    /**
+     * Equirectangular approximation in km between two points given in radians. Much cheaper than haversine;
+     * relative error stays below 0.01% up to 100 km within ±70° latitude and below 0.15% up to 200 km
+     * within ±80°, but grows quickly with distance, so use it only for short hops.
+     */
+    public static double equirectangularKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLon = lon2 - lon1;
+        if (dLon > Math.PI) {
+            dLon -= 2 * Math.PI;
+        } else if (dLon < -Math.PI) {
+            dLon += 2 * Math.PI;
+        }
+        double x = dLon * Math.cos((lat1 + lat2) / 2);
+        double y = lat2 - lat1;
+        return EARTH_RADIUS_KM * Math.sqrt(x * x + y * y);
+    }
+
+    /**
+     * Haversine distances in km from one point to many, all in radians. Writes distances[i] for each
+     * point i and allocates nothing.
+     */
+    public static void haversineKm(double lat, double lon, double[] lats, double[] lons, double[] cosLats,
+                                   double[] distances) {
+        double cosLat = Math.cos(lat);
+        for (int i = 0; i < lats.length; i++) {
+            distances[i] = haversineKm(lat, lon, cosLat, lats[i], lons[i], cosLats[i]);
+        }
+    }
+
+    /**
+     * Equirectangular distances in km from one point to many, all in radians
+     */
+    public static void equirectangularKm(double lat, double lon, double[] lats, double[] lons, double[] distances) {
+        for (int i = 0; i < lats.length; i++) {
+            distances[i] = equirectangularKm(lat, lon, lats[i], lons[i]);
+        }
+    }
+
+    /**
+     * Half-height in degrees of a box containing every point within the radius
+     */
+    public static double latitudeSpanDegrees(double radiusKm) {
+        return radiusKm / KM_PER_DEGREE;
+    }
+
+    /**
+     * Half-width in degrees of a box containing every point within the radius of a point at the latitude
+     */
+    public static double longitudeSpanDegrees(double latitude, double radiusKm) {
+        double cosLat = Math.cos(Math.toRadians(Math.min(89, Math.abs(latitude) + latitudeSpanDegrees(radiusKm))));
+        return Math.min(180, radiusKm / (KM_PER_DEGREE * cosLat));
+    }
+
+    /**
+     * Box containing every point within the radius, as {minLat, minLon, maxLat, maxLon} in degrees.
+     * Longitudes are not wrapped, so boxes crossing the antimeridian extend past ±180.
+     */
+    public static double[] boundingBox(double latitude, double longitude, double radiusKm) {
+        double latSpan = latitudeSpanDegrees(radiusKm);
+        double lonSpan = longitudeSpanDegrees(latitude, radiusKm);
+        return new double[]{
+            Math.max(-90, latitude - latSpan), longitude - lonSpan,
+            Math.min(90, latitude + latSpan), longitude + lonSpan
+        };
+    }
+
+    /**
+     * Whether a point lies inside a box returned by boundingBox
+     */
+    public static boolean inBoundingBox(double[] box, double latitude, double longitude) {
+        return latitude >= box[0] && latitude <= box[2] && longitude >= box[1] && longitude <= box[3];
+    }
+}
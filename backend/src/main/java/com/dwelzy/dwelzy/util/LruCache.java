@@ -0,0 +1,118 @@
+package com.dwelzy.dwelzy.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Thread-safe cache bounded by entry count (least recently used entries go first) and by
+ * time since an entry was loaded. Keeps hit, miss and eviction counts for sizing.
+ */
+public class LruCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public LruCache(int maxSize, long ttlMillis) {
+        if (maxSize < 0 || ttlMillis <= 0) {
+            throw new IllegalArgumentException("Invalid cache bounds: maxSize=" + maxSize + ", ttlMillis=" + ttlMillis);
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > LruCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Cached value for the key, loading and caching it when missing or expired.
+     * The loader runs outside the lock, so concurrent misses for one key may load it twice.
+     */
+    public V get(K key, Function<K, V> loader) {
+        if (maxSize == 0) {
+            misses.increment();
+            return loader.apply(key);
+        }
+
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt > now) {
+                hits.increment();
+                return entry.value;
+            }
+        }
+
+        misses.increment();
+        V value = loader.apply(key);
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, now + ttlMillis));
+        }
+        return value;
+    }
+
+    /**
+     * Cached value for the key, or null when missing or expired; counts as a hit or a miss
+     */
+    public V getIfPresent(K key) {
+        if (maxSize > 0) {
+            long now = System.currentTimeMillis();
+            synchronized (entries) {
+                Entry<V> entry = entries.get(key);
+                if (entry != null && entry.expiresAt > now) {
+                    hits.increment();
+                    return entry.value;
+                }
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(K key, V value) {
+        if (maxSize == 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, now + ttlMillis));
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public Stats getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        return new Stats(size(), maxSize, hitCount, missCount, evictions.sum(),
+                         requests == 0 ? 0 : (double) hitCount / requests);
+    }
+
+    public record Stats(int size, int maxSize, long hits, long misses, long evictions, double hitRatio) {}
+
+    private record Entry<V>(V value, long expiresAt) {}
+}
@@ -0,0 +1,93 @@
+package com.dwelzy.dwelzy.util;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.OptionalLong;
+
+/**
+ * 64-bit difference hash (dHash) of an image: the image is shrunk to 9x8 grey pixels and each bit
+ * records whether a pixel is brighter than its right neighbour. Re-encoded, resized or lightly
+ * edited copies of a photo land within a few bits of each other.
+ */
+public final class PerceptualHash {
+
+    private static final int WIDTH = 9;
+    private static final int HEIGHT = 8;
+
+    // Decode at no less than this many pixels per side; finer detail does not change the hash
+    private static final int MIN_DECODE_SIZE = 64;
+
+    private PerceptualHash() {}
+
+    /**
+     * Hash of the image in the file, empty when no installed decoder understands it
+     */
+    public static OptionalLong dHash(Path file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            if (input == null) {
+                return OptionalLong.empty();
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return OptionalLong.empty();
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                // Subsample while decoding so large photos are never held at full resolution
+                int step = Math.max(1, Math.min(reader.getWidth(0), reader.getHeight(0)) / MIN_DECODE_SIZE);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return OptionalLong.of(dHash(reader.read(0, param)));
+            } catch (IOException | RuntimeException e) {
+                // Truncated or corrupt image data
+                return OptionalLong.empty();
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    public static long dHash(BufferedImage image) {
+        // Box-average luminance into the 9x8 grid; sampling a few pixels per cell would alias
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double[] sums = new double[WIDTH * HEIGHT];
+        int[] counts = new int[WIDTH * HEIGHT];
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            int cellRow = (int) ((long) y * HEIGHT / height) * WIDTH;
+            for (int x = 0; x < width; x++) {
+                int rgb = row[x];
+                int cell = cellRow + (int) ((long) x * WIDTH / width);
+                sums[cell] += 0.299 * ((rgb >> 16) & 0xFF) + 0.587 * ((rgb >> 8) & 0xFF) + 0.114 * (rgb & 0xFF);
+                counts[cell]++;
+            }
+        }
+
+        long hash = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH - 1; x++) {
+                int cell = y * WIDTH + x;
+                double left = counts[cell] > 0 ? sums[cell] / counts[cell] : 0;
+                double right = counts[cell + 1] > 0 ? sums[cell + 1] / counts[cell + 1] : 0;
+                hash = (hash << 1) | (left > right ? 1 : 0);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Number of differing bits; 0 for the same picture, around 32 for unrelated ones
+     */
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+}
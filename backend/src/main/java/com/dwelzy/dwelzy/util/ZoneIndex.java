@@ -0,0 +1,182 @@
+package com.dwelzy.dwelzy.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable index of polygon zones on a uniform latitude/longitude grid. Each cell lists the zones
+ * that touch it, highest priority first, and whether the cell lies entirely inside a zone, so most
+ * lookups end without a point-in-polygon test. Polygons must not cross the antimeridian.
+ */
+public final class ZoneIndex {
+
+    private static final int COVERED = 1;
+
+    private final double cellDegrees;
+    private final Zone[] zones;
+    // Per cell, zone positions shifted left by one with the low bit set when the cell is covered
+    private final Map<Long, int[]> cells = new HashMap<>();
+
+    public ZoneIndex(List<Zone> zones, double cellDegrees) {
+        if (cellDegrees <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellDegrees);
+        }
+        this.cellDegrees = cellDegrees;
+        this.zones = zones.stream()
+                .sorted(Comparator.comparingInt(Zone::priority).reversed())
+                .toArray(Zone[]::new);
+
+        Map<Long, List<Integer>> refs = new HashMap<>();
+        for (int z = 0; z < this.zones.length; z++) {
+            addZone(z, refs);
+        }
+        // Zones were added in priority order, so every cell list is already sorted
+        refs.forEach((cell, list) -> cells.put(cell, list.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    /**
+     * Highest priority zone containing the point, or null
+     */
+    public Zone find(double latitude, double longitude) {
+        int[] refs = cells.get(cellKey(cellIndex(latitude), cellIndex(longitude)));
+        if (refs == null) {
+            return null;
+        }
+        for (int ref : refs) {
+            Zone zone = zones[ref >>> 1];
+            if ((ref & COVERED) != 0 || zone.contains(latitude, longitude)) {
+                return zone;
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return zones.length;
+    }
+
+    private void addZone(int z, Map<Long, List<Integer>> refs) {
+        Zone zone = zones[z];
+        if (zone.rings().isEmpty()) {
+            return;
+        }
+
+        // Cells crossed by an edge need the exact test, judged conservatively by the edge's bounding box
+        Set<Long> boundary = new HashSet<>();
+        for (double[] ring : zone.rings()) {
+            for (int i = 0, j = ring.length - 2; i < ring.length; j = i, i += 2) {
+                int minLon = cellIndex(Math.min(ring[i], ring[j]));
+                int maxLon = cellIndex(Math.max(ring[i], ring[j]));
+                int minLat = cellIndex(Math.min(ring[i + 1], ring[j + 1]));
+                int maxLat = cellIndex(Math.max(ring[i + 1], ring[j + 1]));
+                for (int latCell = minLat; latCell <= maxLat; latCell++) {
+                    for (int lonCell = minLon; lonCell <= maxLon; lonCell++) {
+                        boundary.add(cellKey(latCell, lonCell));
+                    }
+                }
+            }
+        }
+
+        // Every other cell in the bounding box is either wholly inside or wholly outside
+        for (int latCell = cellIndex(zone.minLatitude); latCell <= cellIndex(zone.maxLatitude); latCell++) {
+            for (int lonCell = cellIndex(zone.minLongitude); lonCell <= cellIndex(zone.maxLongitude); lonCell++) {
+                long cell = cellKey(latCell, lonCell);
+                if (boundary.contains(cell)) {
+                    refs.computeIfAbsent(cell, c -> new ArrayList<>()).add(z << 1);
+                } else if (zone.contains((latCell + 0.5) * cellDegrees, (lonCell + 0.5) * cellDegrees)) {
+                    refs.computeIfAbsent(cell, c -> new ArrayList<>()).add(z << 1 | COVERED);
+                }
+            }
+        }
+    }
+
+    private int cellIndex(double degrees) {
+        return (int) Math.floor(degrees / cellDegrees);
+    }
+
+    private static long cellKey(int latCell, int lonCell) {
+        return ((long) latCell << 32) | (lonCell & 0xffffffffL);
+    }
+
+    /**
+     * A zone and its polygon rings, each ring a flat array of longitude, latitude pairs as in GeoJSON.
+     * Outer rings, holes and the polygons of a multipolygon are combined by the even-odd rule.
+     */
+    public static final class Zone {
+        private final String id;
+        private final int priority;
+        private final boolean serviceable;
+        private final List<double[]> rings;
+        private final double minLatitude;
+        private final double maxLatitude;
+        private final double minLongitude;
+        private final double maxLongitude;
+
+        public Zone(String id, int priority, boolean serviceable, List<double[]> rings) {
+            this.id = id;
+            this.priority = priority;
+            this.serviceable = serviceable;
+            this.rings = List.copyOf(rings);
+
+            double minLat = Double.POSITIVE_INFINITY, maxLat = Double.NEGATIVE_INFINITY;
+            double minLon = Double.POSITIVE_INFINITY, maxLon = Double.NEGATIVE_INFINITY;
+            for (double[] ring : rings) {
+                if (ring.length < 6 || ring.length % 2 != 0) {
+                    throw new IllegalArgumentException("Zone " + id + " has a ring with fewer than 3 points");
+                }
+                for (int i = 0; i < ring.length; i += 2) {
+                    minLon = Math.min(minLon, ring[i]);
+                    maxLon = Math.max(maxLon, ring[i]);
+                    minLat = Math.min(minLat, ring[i + 1]);
+                    maxLat = Math.max(maxLat, ring[i + 1]);
+                }
+            }
+            this.minLatitude = minLat;
+            this.maxLatitude = maxLat;
+            this.minLongitude = minLon;
+            this.maxLongitude = maxLon;
+        }
+
+        public String id() {
+            return id;
+        }
+
+        public int priority() {
+            return priority;
+        }
+
+        public boolean serviceable() {
+            return serviceable;
+        }
+
+        public List<double[]> rings() {
+            return rings;
+        }
+
+        /**
+         * Even-odd ray casting over all rings
+         */
+        public boolean contains(double latitude, double longitude) {
+            if (latitude < minLatitude || latitude > maxLatitude || longitude < minLongitude || longitude > maxLongitude) {
+                return false;
+            }
+            boolean inside = false;
+            for (double[] ring : rings) {
+                for (int i = 0, j = ring.length - 2; i < ring.length; j = i, i += 2) {
+                    double lonI = ring[i], latI = ring[i + 1];
+                    double lonJ = ring[j], latJ = ring[j + 1];
+                    if ((latI > latitude) != (latJ > latitude) &&
+                        longitude < (lonJ - lonI) * (latitude - latI) / (latJ - latI) + lonI) {
+                        inside = !inside;
+                    }
+                }
+            }
+            return inside;
+        }
+    }
+}
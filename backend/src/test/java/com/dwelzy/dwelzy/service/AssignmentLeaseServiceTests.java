@@ -0,0 +1,96 @@
+package com.dwelzy.dwelzy.service;
+
+import com.dwelzy.dwelzy.DwelzyApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two application contexts sharing one H2 database behave like two backend instances
+ */
+class AssignmentLeaseServiceTests {
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode("node-a");
+        nodeB = startNode("node-b");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    private static ConfigurableApplicationContext startNode(String nodeId) {
+        return new SpringApplicationBuilder(DwelzyApplication.class).run(
+            "--server.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:lease_test;DB_CLOSE_DELAY=-1",
+            "--spring.jpa.hibernate.ddl-auto=update",
+            "--spring.jpa.show-sql=false",
+            "--dwelzy.app.nodeId=" + nodeId,
+            "--dwelzy.app.assignmentLeaseMs=300"
+        );
+    }
+
+    @Test
+    void onlyOneNodeHoldsAPartitionAtATime() {
+        AssignmentLeaseService leasesA = nodeA.getBean(AssignmentLeaseService.class);
+        AssignmentLeaseService leasesB = nodeB.getBean(AssignmentLeaseService.class);
+        assertNotEquals(leasesA.getNodeId(), leasesB.getNodeId());
+
+        assertTrue(leasesA.tryAcquire("hub:1"));
+        assertFalse(leasesB.tryAcquire("hub:1"));
+        assertTrue(leasesB.tryAcquire("hub:2"));
+
+        // The holder can renew, and releasing hands the partition over immediately
+        assertTrue(leasesA.tryAcquire("hub:1"));
+        leasesA.release("hub:1");
+        assertTrue(leasesB.tryAcquire("hub:1"));
+        assertFalse(leasesA.tryAcquire("hub:1"));
+    }
+
+    @Test
+    void expiredLeaseOfACrashedNodeCanBeTakenOver() throws InterruptedException {
+        AssignmentLeaseService leasesA = nodeA.getBean(AssignmentLeaseService.class);
+        AssignmentLeaseService leasesB = nodeB.getBean(AssignmentLeaseService.class);
+
+        assertTrue(leasesA.tryAcquire("hub:3"));
+        assertFalse(leasesB.tryAcquire("hub:3"));
+
+        // Node A never renews, as if it had crashed
+        Thread.sleep(400);
+        assertTrue(leasesB.tryAcquire("hub:3"));
+        assertFalse(leasesA.tryAcquire("hub:3"));
+    }
+
+    @Test
+    void renewFailsOnceTheLeaseExpired() throws InterruptedException {
+        AssignmentLeaseService leasesA = nodeA.getBean(AssignmentLeaseService.class);
+        AssignmentLeaseService leasesB = nodeB.getBean(AssignmentLeaseService.class);
+
+        assertTrue(leasesA.tryAcquire("hub:4"));
+        assertFalse(leasesB.renew("hub:4"));
+
+        // Renewing in time keeps the lease past its original expiry
+        Thread.sleep(200);
+        assertTrue(leasesA.renew("hub:4"));
+        Thread.sleep(200);
+        assertTrue(leasesA.renew("hub:4"));
+        assertFalse(leasesB.tryAcquire("hub:4"));
+
+        // Expired, even though no other node has claimed it yet
+        Thread.sleep(400);
+        assertFalse(leasesA.renew("hub:4"));
+        assertFalse(leasesA.renew("hub:5"));
+    }
+}
@@ -0,0 +1,172 @@
+package com.dwelzy.dwelzy.service;
+
+import com.dwelzy.dwelzy.dto.RateTableDefinition;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The compiled default rate table must price like the BigDecimal formula it replaced
+ */
+class RateTableTests {
+
+    private static final String[] ITEM_TYPES = {
+        null, "fragile", "electronics", "documents", "food", "medical", "hazardous", "FRAGILE", "furniture"
+    };
+
+    private static RateTable defaults;
+
+    @BeforeAll
+    static void loadDefaults() throws IOException {
+        try (InputStream input = RateTableTests.class.getResourceAsStream("/pricing-rates.json")) {
+            defaults = RateTable.compile(new ObjectMapper().readValue(input, RateTableDefinition.class));
+        }
+    }
+
+    @Test
+    void defaultRatesMatchBaselineFormula() {
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            // Up to three decimals, as the baseline saw them through BigDecimal.valueOf
+            double distance = random.nextInt(200_000) / 1000.0;
+            double weight = random.nextInt(50_000) / 1000.0;
+            double volume = random.nextInt(1_000_000) / 1000.0;
+            String itemType = ITEM_TYPES[random.nextInt(ITEM_TYPES.length)];
+            boolean urgent = random.nextBoolean();
+
+            long cents = defaults.quoteCents(distance, weight, volume, itemType, null, null,
+                    RateTable.NO_PICKUP_HOUR, urgent ? 0 : RateTable.NO_PICKUP_TIME, RateTable.NO_SURGE);
+            assertEquals(baselinePrice(distance, weight, volume, itemType, urgent), BigDecimal.valueOf(cents, 2),
+                    distance + " km, " + weight + " kg, " + volume + ", " + itemType + ", urgent " + urgent);
+        }
+    }
+
+    @Test
+    void unknownInputsAddNothing() {
+        assertEquals(5000, defaults.quoteCents(Double.NaN, 0, 0, null, null, null,
+                RateTable.NO_PICKUP_HOUR, RateTable.NO_PICKUP_TIME, RateTable.NO_SURGE));
+    }
+
+    @Test
+    void urgentWithinConfiguredHours() {
+        assertEquals(7500, quoteWithPickupIn(2));
+        assertEquals(7500, quoteWithPickupIn(-1));
+        assertEquals(5000, quoteWithPickupIn(3));
+    }
+
+    @Test
+    void halfCentsRoundUp() {
+        // 0.001 km at 500 cents per km is half a cent
+        assertEquals(5001, quoteDistance(0.001));
+        assertEquals(5000, quoteDistance(0.0009));
+        // Brackets are summed before rounding, so two half cents make one cent, not two
+        assertEquals(5001, defaults.quoteCents(0.001, 0.0005, 0, null, null, null,
+                RateTable.NO_PICKUP_HOUR, RateTable.NO_PICKUP_TIME, RateTable.NO_SURGE));
+    }
+
+    @Test
+    void surgeRoundsHalfUpOnTotal() {
+        // 50.05 at 1.1 is 55.055
+        assertEquals(5506, defaults.quoteCents(0.01, 0, 0, null, null, null,
+                RateTable.NO_PICKUP_HOUR, RateTable.NO_PICKUP_TIME, 11_000));
+        assertEquals(11_000, defaults.surgeBasisPoints(1500));
+        assertEquals(RateTable.NO_SURGE, defaults.surgeBasisPoints(1499));
+        assertEquals(15_000, defaults.surgeBasisPoints(10_000));
+    }
+
+    @Test
+    void timeWindowWrapsPastMidnight() {
+        RateTable rates = RateTable.compile(definitionWithWindows(window(22, 6, 700)));
+        for (int hour = 0; hour < 24; hour++) {
+            long expected = hour >= 22 || hour < 6 ? 1700 : 1000;
+            assertEquals(expected, quoteAtHour(rates, hour), "hour " + hour);
+        }
+        assertEquals(1000, quoteAtHour(rates, RateTable.NO_PICKUP_HOUR));
+    }
+
+    @Test
+    void timeWindowBounds() {
+        // Equal bounds cover the whole day, 24 ends at midnight, overlapping windows add up
+        RateTable rates = RateTable.compile(definitionWithWindows(window(5, 5, 100), window(18, 24, 200),
+                window(20, 2, 50)));
+        assertEquals(1100, quoteAtHour(rates, 12));
+        assertEquals(1300, quoteAtHour(rates, 18));
+        assertEquals(1350, quoteAtHour(rates, 23));
+        assertEquals(1150, quoteAtHour(rates, 0));
+        assertEquals(1100, quoteAtHour(rates, 2));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> RateTable.compile(definitionWithWindows(window(24, 2, 100))));
+        assertThrows(IllegalArgumentException.class,
+                () -> RateTable.compile(definitionWithWindows(window(3, 25, 100))));
+    }
+
+    // The quote formula of PricingService before rate tables, urgent meaning pickup within two hours
+    private static BigDecimal baselinePrice(double distance, double weight, double volume, String itemType,
+                                            boolean urgent) {
+        BigDecimal totalPrice = new BigDecimal("50.00");
+        totalPrice = totalPrice.add(BigDecimal.valueOf(distance).multiply(new BigDecimal("5.00")));
+        if (weight > 0) {
+            totalPrice = totalPrice.add(BigDecimal.valueOf(weight).multiply(new BigDecimal("10.00")));
+        }
+        if (volume > 0) {
+            totalPrice = totalPrice.add(BigDecimal.valueOf(volume).multiply(new BigDecimal("0.5")));
+        }
+        if (itemType != null) {
+            totalPrice = totalPrice.add(switch (itemType.toLowerCase()) {
+                case "fragile" -> new BigDecimal("20.00");
+                case "electronics" -> new BigDecimal("15.00");
+                case "documents" -> new BigDecimal("5.00");
+                case "food" -> new BigDecimal("10.00");
+                case "medical" -> new BigDecimal("30.00");
+                case "hazardous" -> new BigDecimal("50.00");
+                default -> BigDecimal.ZERO;
+            });
+        }
+        if (urgent) {
+            totalPrice = totalPrice.add(new BigDecimal("25.00"));
+        }
+        return totalPrice.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static long quoteWithPickupIn(long hours) {
+        return defaults.quoteCents(Double.NaN, 0, 0, null, null, null, RateTable.NO_PICKUP_HOUR, hours,
+                RateTable.NO_SURGE);
+    }
+
+    private static long quoteDistance(double distance) {
+        return defaults.quoteCents(distance, 0, 0, null, null, null, RateTable.NO_PICKUP_HOUR,
+                RateTable.NO_PICKUP_TIME, RateTable.NO_SURGE);
+    }
+
+    private static long quoteAtHour(RateTable rates, int hour) {
+        return rates.quoteCents(Double.NaN, 0, 0, null, null, null, hour, RateTable.NO_PICKUP_TIME,
+                RateTable.NO_SURGE);
+    }
+
+    private static RateTableDefinition definitionWithWindows(RateTableDefinition.TimeWindow... windows) {
+        RateTableDefinition definition = new RateTableDefinition();
+        definition.setName("test");
+        definition.setBaseCents(1000);
+        definition.setTimeOfDaySurcharges(List.of(windows));
+        return definition;
+    }
+
+    private static RateTableDefinition.TimeWindow window(int fromHour, int toHour, long cents) {
+        RateTableDefinition.TimeWindow window = new RateTableDefinition.TimeWindow();
+        window.setFromHour(fromHour);
+        window.setToHour(toHour);
+        window.setCents(cents);
+        return window;
+    }
+}
@@ -0,0 +1,105 @@
+package com.dwelzy.dwelzy.service;
+
+import com.dwelzy.dwelzy.util.ZoneIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * GeoJSON zone files parsed into zones, from the zones-test.geojson fixture and inline bad files
+ */
+class ZoneServiceTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void polygonWithHole() {
+        ZoneService zones = load("classpath:zones-test.geojson");
+        assertEquals("donut", zones.findZone(0.5, 0.5).id());
+        assertEquals("donut", zones.findZone(1.5, 3).id());
+        assertNull(zones.findZone(1.5, 1.5));
+        assertNull(zones.findZone(-0.5, 2));
+    }
+
+    @Test
+    void priorityAndDefaults() {
+        ZoneService zones = load("classpath:zones-test.geojson");
+        ZoneIndex.Zone corner = zones.findZone(3.5, 3.5);
+        assertEquals("corner", corner.id());
+        assertEquals(5, corner.priority());
+        assertTrue(corner.serviceable());
+        assertEquals("corner", zones.findZone(4.5, 4.5).id());
+
+        ZoneIndex.Zone donut = zones.findZone(0.5, 0.5);
+        assertEquals(0, donut.priority());
+        assertTrue(donut.serviceable());
+    }
+
+    @Test
+    void multipolygonWithFeatureId() {
+        ZoneService zones = load("classpath:zones-test.geojson");
+        ZoneIndex.Zone islands = zones.findZone(10.5, 10.5);
+        assertEquals("islands", islands.id());
+        assertFalse(islands.serviceable());
+        assertEquals(2, islands.rings().size());
+        assertEquals("islands", zones.findZone(10.5, 12.5).id());
+        assertNull(zones.findZone(10.5, 11.5));
+    }
+
+    @Test
+    void coordinatesAreLongitudeFirst() {
+        ZoneService zones = load(write("""
+                {"type": "FeatureCollection", "features": [{"type": "Feature", "properties": {"id": "strip"},
+                  "geometry": {"type": "Polygon", "coordinates": [[[0, 0], [10, 0], [10, 1], [0, 1], [0, 0]]]}}]}
+                """));
+        assertEquals("strip", zones.findZone(0.5, 9).id());
+        assertNull(zones.findZone(9, 0.5));
+    }
+
+    @Test
+    void rejectsInvalidFiles() {
+        String polygon = "{\"type\": \"Polygon\", \"coordinates\": [[[0, 0], [1, 0], [1, 1], [0, 0]]]}";
+        assertInvalid("{\"type\": \"Feature\"}");
+        assertInvalid("{\"type\": \"FeatureCollection\", \"features\": [{\"properties\": {}, \"geometry\": "
+                + polygon + "}]}");
+        assertInvalid("{\"type\": \"FeatureCollection\", \"features\": [{\"properties\": {\"id\": \"a\"}, "
+                + "\"geometry\": {\"type\": \"LineString\", \"coordinates\": [[0, 0], [1, 1]]}}]}");
+        assertInvalid("{\"type\": \"FeatureCollection\", \"features\": [{\"properties\": {\"id\": \"a\"}, "
+                + "\"geometry\": {\"type\": \"Polygon\", \"coordinates\": [[[0, 0], [1, \"x\"], [1, 1], [0, 0]]]}}]}");
+        assertInvalid("{\"type\": \"FeatureCollection\", \"features\": [{\"properties\": {\"id\": \"a\"}, "
+                + "\"geometry\": {\"type\": \"Polygon\", \"coordinates\": [[[0, 0], [1, 1]]]}}]}");
+        assertInvalid("{\"type\": ");
+    }
+
+    private void assertInvalid(String json) {
+        String location = write(json);
+        assertThrows(RuntimeException.class, () -> load(location), json);
+    }
+
+    private String write(String json) {
+        try {
+            return Files.writeString(Files.createTempFile(tempDir, "zones", ".geojson"), json).toUri().toString();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static ZoneService load(String location) {
+        ZoneService zones = new ZoneService();
+        ReflectionTestUtils.setField(zones, "zonesLocation", location);
+        ReflectionTestUtils.setField(zones, "cellDegrees", 0.25);
+        zones.loadZones();
+        return zones;
+    }
+}
@@ -0,0 +1,142 @@
+package com.dwelzy.dwelzy.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hungarian solver results checked against exhaustive search on small matrices
+ */
+class AssignmentSolverTests {
+
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    void emptyInputs() {
+        assertArrayEquals(new int[0], AssignmentSolver.minimize(new double[0][0]));
+        assertArrayEquals(new int[] {AssignmentSolver.UNASSIGNED, AssignmentSolver.UNASSIGNED},
+                AssignmentSolver.minimize(new double[2][0]));
+    }
+
+    @Test
+    void squareMatrix() {
+        double[][] cost = {
+            {4, 1, 3},
+            {2, 0, 5},
+            {3, 2, 2}
+        };
+        assertArrayEquals(new int[] {1, 0, 2}, AssignmentSolver.minimize(cost));
+    }
+
+    @Test
+    void moreColumnsThanRows() {
+        double[][] cost = {
+            {9, 2, 7, 8},
+            {6, 4, 3, 7}
+        };
+        assertArrayEquals(new int[] {1, 2}, AssignmentSolver.minimize(cost));
+    }
+
+    @Test
+    void moreRowsThanColumnsLeavesCheapestRowsAssigned() {
+        // Solved through the transpose; the row without a column must come back unassigned
+        double[][] cost = {
+            {9, 6},
+            {2, 4},
+            {7, 3},
+            {8, 7}
+        };
+        assertArrayEquals(new int[] {AssignmentSolver.UNASSIGNED, 0, 1, AssignmentSolver.UNASSIGNED},
+                AssignmentSolver.minimize(cost));
+    }
+
+    @Test
+    void singleColumn() {
+        double[][] cost = {{5}, {1}, {3}};
+        assertArrayEquals(new int[] {AssignmentSolver.UNASSIGNED, 0, AssignmentSolver.UNASSIGNED},
+                AssignmentSolver.minimize(cost));
+    }
+
+    @Test
+    void maximizeNegatesScores() {
+        double[][] score = {
+            {1, 5},
+            {4, 2}
+        };
+        assertArrayEquals(new int[] {1, 0}, AssignmentSolver.maximize(score));
+    }
+
+    @Test
+    void matchesBruteForceOnRandomMatrices() {
+        Random random = new Random(42);
+        for (int round = 0; round < 500; round++) {
+            int rows = 1 + random.nextInt(6);
+            int cols = 1 + random.nextInt(6);
+            double[][] cost = new double[rows][cols];
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    // Small integers produce ties, real values exercise the potentials
+                    cost[i][j] = round % 2 == 0 ? random.nextInt(5) : random.nextDouble() * 100 - 20;
+                }
+            }
+
+            int[] assignment = AssignmentSolver.minimize(cost);
+            assertValid(cost, assignment);
+            assertEquals(bruteForce(cost), total(cost, assignment), EPSILON, "round " + round);
+        }
+    }
+
+    // Every row gets a distinct column, and exactly min(rows, cols) rows are assigned
+    private static void assertValid(double[][] cost, int[] assignment) {
+        assertEquals(cost.length, assignment.length);
+        Set<Integer> columns = new HashSet<>();
+        for (int column : assignment) {
+            if (column != AssignmentSolver.UNASSIGNED) {
+                assertTrue(column >= 0 && column < cost[0].length);
+                assertTrue(columns.add(column), "column assigned twice: " + column);
+            }
+        }
+        assertEquals(Math.min(cost.length, cost[0].length), columns.size());
+    }
+
+    private static double total(double[][] cost, int[] assignment) {
+        double sum = 0;
+        for (int i = 0; i < assignment.length; i++) {
+            if (assignment[i] != AssignmentSolver.UNASSIGNED) {
+                sum += cost[i][assignment[i]];
+            }
+        }
+        return sum;
+    }
+
+    // Minimum over every way of matching min(rows, cols) rows to distinct columns
+    private static double bruteForce(double[][] cost) {
+        int rows = cost.length;
+        int cols = cost[0].length;
+        return search(cost, 0, new boolean[cols], Math.max(0, rows - cols));
+    }
+
+    private static double search(double[][] cost, int row, boolean[] usedColumns, int skipsLeft) {
+        if (row == cost.length) {
+            return 0;
+        }
+        double best = Double.POSITIVE_INFINITY;
+        if (skipsLeft > 0) {
+            best = search(cost, row + 1, usedColumns, skipsLeft - 1);
+        }
+        for (int j = 0; j < usedColumns.length; j++) {
+            if (!usedColumns[j]) {
+                usedColumns[j] = true;
+                best = Math.min(best, cost[row][j] + search(cost, row + 1, usedColumns, skipsLeft));
+                usedColumns[j] = false;
+            }
+        }
+        return best;
+    }
+}
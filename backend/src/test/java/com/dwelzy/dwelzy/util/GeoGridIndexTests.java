@@ -0,0 +1,197 @@
+package com.dwelzy.dwelzy.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Grid queries checked against a brute-force haversine scan of the same points
+ */
+class GeoGridIndexTests {
+
+    private static final double CELL_DEGREES = 0.05;
+
+    @Test
+    void rejectsNonPositiveCellSize() {
+        assertThrows(IllegalArgumentException.class, () -> new GeoGridIndex<Integer>(0));
+    }
+
+    @Test
+    void emptyIndex() {
+        GeoGridIndex<Integer> index = new GeoGridIndex<>(CELL_DEGREES);
+        assertEquals(List.of(), index.nearest(0, 0, 3));
+        assertEquals(List.of(), index.withinRadius(0, 0, 100));
+        assertEquals(List.of(), index.nearest(0, 0, 0));
+    }
+
+    @Test
+    void matchesBruteForceAroundEquator() {
+        // Straddles both zero lines, so cell indexes go negative
+        checkRandom(new Random(1), -0.5, 0.5, -0.5, 0.5, 300);
+    }
+
+    @Test
+    void matchesBruteForceAtHighLatitude() {
+        // A degree of longitude is half as long here as a degree of latitude
+        checkRandom(new Random(2), 59.5, 60.5, 10.0, 11.0, 300);
+    }
+
+    @Test
+    void matchesBruteForceWhenSparse() {
+        // Few points far apart fall back to scanning the occupied cells
+        checkRandom(new Random(3), -30, 30, -60, 60, 12);
+    }
+
+    @Test
+    void pointsOnCellEdges() {
+        GeoGridIndex<Integer> index = new GeoGridIndex<>(CELL_DEGREES);
+        Map<Integer, double[]> points = new HashMap<>();
+        int key = 0;
+        for (int lat = -4; lat <= 4; lat++) {
+            for (int lon = -4; lon <= 4; lon++) {
+                points.put(key++, new double[] {lat * CELL_DEGREES, lon * CELL_DEGREES});
+            }
+        }
+        points.forEach((k, location) -> index.put(k, location[0], location[1]));
+
+        // Queries exactly on edges and corners, and just either side of them
+        double[] offsets = {0, 1e-9, -1e-9, CELL_DEGREES / 2};
+        for (double latOffset : offsets) {
+            for (double lonOffset : offsets) {
+                double latitude = CELL_DEGREES + latOffset;
+                double longitude = -CELL_DEGREES + lonOffset;
+                assertNearest(points, index, latitude, longitude, 5);
+                assertWithinRadius(points, index, latitude, longitude, 5.56);
+                assertWithinRadius(points, index, latitude, longitude, 11.2);
+            }
+        }
+    }
+
+    @Test
+    void queriesSeeMovesAndRemoves() {
+        Random random = new Random(4);
+        GeoGridIndex<Integer> index = new GeoGridIndex<>(CELL_DEGREES);
+        Map<Integer, double[]> points = new HashMap<>();
+        for (int round = 0; round < 2000; round++) {
+            int key = random.nextInt(100);
+            if (random.nextInt(4) == 0) {
+                index.remove(key);
+                points.remove(key);
+                assertFalse(index.contains(key));
+            } else {
+                // Mostly short moves within or into a neighbouring cell, sometimes a jump across the area
+                double[] previous = points.get(key);
+                double[] location = previous != null && random.nextBoolean()
+                        ? new double[] {previous[0] + (random.nextDouble() - 0.5) * 0.1,
+                                previous[1] + (random.nextDouble() - 0.5) * 0.1}
+                        : randomPoint(random, -1.5, -1.0, 36.6, 37.1);
+                index.put(key, location[0], location[1]);
+                points.put(key, location);
+                assertTrue(index.contains(key));
+            }
+            assertEquals(points.size(), index.size());
+
+            if (round % 20 == 0) {
+                double[] query = randomPoint(random, -1.6, -0.9, 36.5, 37.2);
+                assertNearest(points, index, query[0], query[1], 1 + random.nextInt(10));
+                assertWithinRadius(points, index, query[0], query[1], random.nextDouble() * 15);
+            }
+        }
+    }
+
+    @Test
+    void replaceAllDropsPreviousPoints() {
+        GeoGridIndex<Integer> index = new GeoGridIndex<>(CELL_DEGREES);
+        index.put(1, 0, 0);
+        index.put(2, 0.01, 0.01);
+
+        Map<Integer, double[]> points = Map.of(2, new double[] {1, 1}, 3, new double[] {1.02, 1.02});
+        index.replaceAll(points);
+
+        assertFalse(index.contains(1));
+        assertEquals(2, index.size());
+        assertEquals(List.of(2, 3), index.nearest(0, 0, 5));
+        assertEquals(List.of(), index.withinRadius(0, 0, 50));
+    }
+
+    private static void checkRandom(Random random, double minLat, double maxLat, double minLon, double maxLon,
+                                    int count) {
+        GeoGridIndex<Integer> index = new GeoGridIndex<>(CELL_DEGREES);
+        Map<Integer, double[]> points = new HashMap<>();
+        for (int key = 0; key < count; key++) {
+            double[] location = randomPoint(random, minLat, maxLat, minLon, maxLon);
+            points.put(key, location);
+            index.put(key, location[0], location[1]);
+        }
+
+        double latMargin = (maxLat - minLat) / 4;
+        double lonMargin = (maxLon - minLon) / 4;
+        double diagonalKm = GeoMath.distanceKm(minLat, minLon, maxLat, maxLon);
+        for (int query = 0; query < 200; query++) {
+            // Some queries land outside the populated area
+            double[] location = randomPoint(random, minLat - latMargin, maxLat + latMargin,
+                    minLon - lonMargin, maxLon + lonMargin);
+            assertNearest(points, index, location[0], location[1], 1 + random.nextInt(count + 2));
+            assertWithinRadius(points, index, location[0], location[1], random.nextDouble() * diagonalKm / 4);
+        }
+    }
+
+    // Equidistant points may come back in any order, so results are compared by their distances
+    private static void assertNearest(Map<Integer, double[]> points, GeoGridIndex<Integer> index,
+                                      double latitude, double longitude, int k) {
+        List<Double> expected = bruteForce(points, latitude, longitude, Double.POSITIVE_INFINITY);
+        List<Integer> found = index.nearest(latitude, longitude, k);
+        assertEquals(expected.subList(0, Math.min(k, expected.size())), distances(points, found, latitude, longitude),
+                "nearest " + k + " to " + latitude + ", " + longitude);
+        assertEquals(found.size(), new HashSet<>(found).size());
+    }
+
+    private static void assertWithinRadius(Map<Integer, double[]> points, GeoGridIndex<Integer> index,
+                                           double latitude, double longitude, double radiusKm) {
+        List<Integer> found = index.withinRadius(latitude, longitude, radiusKm);
+        assertEquals(bruteForce(points, latitude, longitude, radiusKm), distances(points, found, latitude, longitude),
+                "within " + radiusKm + " km of " + latitude + ", " + longitude);
+        assertEquals(found.size(), new HashSet<>(found).size());
+    }
+
+    // Distances of every point within the radius, ascending
+    private static List<Double> bruteForce(Map<Integer, double[]> points, double latitude, double longitude,
+                                           double radiusKm) {
+        List<Double> distances = new ArrayList<>();
+        for (double[] location : points.values()) {
+            double distance = GeoMath.distanceKm(latitude, longitude, location[0], location[1]);
+            if (distance <= radiusKm) {
+                distances.add(distance);
+            }
+        }
+        distances.sort(null);
+        return distances;
+    }
+
+    private static List<Double> distances(Map<Integer, double[]> points, List<Integer> keys, double latitude,
+                                          double longitude) {
+        List<Double> distances = new ArrayList<>(keys.size());
+        for (Integer key : keys) {
+            double[] location = points.get(key);
+            distances.add(GeoMath.distanceKm(latitude, longitude, location[0], location[1]));
+        }
+        return distances;
+    }
+
+    private static double[] randomPoint(Random random, double minLat, double maxLat, double minLon, double maxLon) {
+        return new double[] {
+            minLat + random.nextDouble() * (maxLat - minLat),
+            minLon + random.nextDouble() * (maxLon - minLon)
+        };
+    }
+}
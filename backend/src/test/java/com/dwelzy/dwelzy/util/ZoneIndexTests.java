@@ -0,0 +1,170 @@
+package com.dwelzy.dwelzy.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Point-in-polygon rules of a zone and grid lookups checked against testing every zone
+ */
+class ZoneIndexTests {
+
+    // Rings are longitude, latitude pairs like GeoJSON
+    private static final double[] SQUARE = {0, 0, 4, 0, 4, 4, 0, 4, 0, 0};
+    private static final double[] HOLE = {1, 1, 1, 2, 2, 2, 2, 1, 1, 1};
+    private static final double[] EAST_SQUARE = {4, 0, 8, 0, 8, 4, 4, 4, 4, 0};
+    // A U opening to the north: the notch between x 2 and 4 reaches down to y 2
+    private static final double[] U_SHAPE = {0, 0, 6, 0, 6, 6, 4, 6, 4, 2, 2, 2, 2, 6, 0, 6, 0, 0};
+
+    @Test
+    void squareContainsInteriorOnly() {
+        ZoneIndex.Zone square = zone("square", 0, SQUARE);
+        assertTrue(square.contains(2, 2));
+        assertFalse(square.contains(5, 2));
+        assertFalse(square.contains(-0.1, 2));
+        assertFalse(square.contains(2, 4.1));
+    }
+
+    @Test
+    void holesAreExcluded() {
+        ZoneIndex.Zone donut = zone("donut", 0, SQUARE, HOLE);
+        assertFalse(donut.contains(1.5, 1.5));
+        assertTrue(donut.contains(0.5, 0.5));
+        assertTrue(donut.contains(3, 3));
+        // Same latitude as the hole, east and west of it
+        assertTrue(donut.contains(1.5, 0.5));
+        assertTrue(donut.contains(1.5, 3));
+    }
+
+    @Test
+    void multipolygonPartsAreAllIncluded() {
+        double[] farSquare = {10, 10, 11, 10, 11, 11, 10, 11, 10, 10};
+        ZoneIndex.Zone islands = zone("islands", 0, SQUARE, farSquare);
+        assertTrue(islands.contains(2, 2));
+        assertTrue(islands.contains(10.5, 10.5));
+        assertFalse(islands.contains(7, 7));
+    }
+
+    @Test
+    void concavePolygon() {
+        ZoneIndex.Zone u = zone("u", 0, U_SHAPE);
+        assertTrue(u.contains(1, 1));
+        assertTrue(u.contains(5, 1));
+        assertTrue(u.contains(4, 1));
+        assertFalse(u.contains(4, 3));
+        assertTrue(u.contains(4, 5));
+        assertTrue(u.contains(4, 0.5));
+    }
+
+    @Test
+    void boundaryPointsBelongToExactlyOneOfAdjacentZones() {
+        // Shared edges and the hole's rim must be neither lost between zones nor counted twice
+        ZoneIndex.Zone donut = zone("donut", 0, SQUARE, HOLE);
+        ZoneIndex.Zone core = zone("core", 0, HOLE);
+        ZoneIndex.Zone east = zone("east", 0, EAST_SQUARE);
+
+        for (double t = 0.25; t < 4; t += 0.25) {
+            assertEquals(1, count(t, 4, donut, east), "shared edge at latitude " + t);
+        }
+        for (double t = 1; t <= 2; t += 0.25) {
+            double[][] rim = {{1, t}, {2, t}, {t, 1}, {t, 2}};
+            for (double[] point : rim) {
+                assertEquals(1, count(point[0], point[1], donut, core), "hole rim at " + point[0] + ", " + point[1]);
+            }
+        }
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> zone("line", 0, new double[] {0, 0, 1, 1}));
+        assertThrows(IllegalArgumentException.class, () -> zone("odd", 0, new double[] {0, 0, 1, 0, 1}));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ZoneIndex(List.of(zone("square", 0, SQUARE)), 0));
+    }
+
+    @Test
+    void emptyIndexAndEmptyZone() {
+        assertNull(new ZoneIndex(List.of(), 0.01).find(0, 0));
+        assertNull(new ZoneIndex(List.of(new ZoneIndex.Zone("empty", 0, true, List.of())), 0.01).find(0, 0));
+    }
+
+    @Test
+    void higherPriorityWinsWhereZonesOverlap() {
+        ZoneIndex.Zone low = zone("low", 0, SQUARE);
+        ZoneIndex.Zone high = zone("high", 5, HOLE);
+        ZoneIndex index = new ZoneIndex(List.of(low, high), 0.5);
+        assertSame(high, index.find(1.5, 1.5));
+        assertSame(low, index.find(3, 3));
+        assertNull(index.find(5, 5));
+    }
+
+    @Test
+    void findMatchesTestingEveryZone() {
+        List<ZoneIndex.Zone> zones = List.of(
+                zone("donut", 0, SQUARE, HOLE),
+                zone("core", 1, HOLE),
+                zone("east", 2, EAST_SQUARE),
+                zone("u", 3, shift(U_SHAPE, 1, 5)),
+                zone("diamond", 4, new double[] {10, 2, 12, 4, 10, 6, 8, 4, 10, 2}));
+
+        Random random = new Random(5);
+        // Cells much smaller than, about as large as, and larger than the zones
+        for (double cellDegrees : new double[] {0.05, 0.5, 1, 3, 20}) {
+            ZoneIndex index = new ZoneIndex(zones, cellDegrees);
+            for (int i = 0; i < 5000; i++) {
+                double latitude = random.nextDouble() * 14 - 1;
+                double longitude = random.nextDouble() * 15 - 1;
+                assertSame(bruteForce(zones, latitude, longitude), index.find(latitude, longitude),
+                        latitude + ", " + longitude + " with cells of " + cellDegrees);
+            }
+            // Vertices, edges and grid lines
+            for (double latitude = -1; latitude <= 13; latitude += 0.25) {
+                for (double longitude = -1; longitude <= 14; longitude += 0.25) {
+                    assertSame(bruteForce(zones, latitude, longitude), index.find(latitude, longitude),
+                            latitude + ", " + longitude + " with cells of " + cellDegrees);
+                }
+            }
+        }
+    }
+
+    private static ZoneIndex.Zone bruteForce(List<ZoneIndex.Zone> zones, double latitude, double longitude) {
+        ZoneIndex.Zone best = null;
+        for (ZoneIndex.Zone zone : zones) {
+            if (zone.contains(latitude, longitude) && (best == null || zone.priority() > best.priority())) {
+                best = zone;
+            }
+        }
+        return best;
+    }
+
+    private static int count(double latitude, double longitude, ZoneIndex.Zone... zones) {
+        int count = 0;
+        for (ZoneIndex.Zone zone : zones) {
+            if (zone.contains(latitude, longitude)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static ZoneIndex.Zone zone(String id, int priority, double[]... rings) {
+        return new ZoneIndex.Zone(id, priority, true, List.of(rings));
+    }
+
+    private static double[] shift(double[] ring, double longitude, double latitude) {
+        double[] shifted = ring.clone();
+        for (int i = 0; i < shifted.length; i += 2) {
+            shifted[i] += longitude;
+            shifted[i + 1] += latitude;
+        }
+        return shifted;
+    }
+}